@@ -0,0 +1,171 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      AuthFilterBenchmark.java                                        *
+ * Created:   17/10/2026, 20:51                                               *
+ * Modified:  17/10/2026, 21:56                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.bench;
+
+import com.aerosimo.ominet.security.AuthCoreFilter;
+import com.aerosimo.ominet.security.TokenVerifier;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AuthCoreFilter against a local AuthCore stub: a hit reuses one cached token, a miss sends a fresh
+ * token through the HTTP client on every call, and localJwks verifies one signed token in local mode
+ * against the stub's key set once it is cached. Each benchmark runs in its own fork, so the mode is
+ * picked per benchmark before AuthCore is loaded.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dpersonahub.log.dir=target/bench-logs")
+@State(Scope.Benchmark)
+public class AuthFilterBenchmark {
+
+    private static final byte[] VALID = "{\"status\":\"success\",\"message\":\"valid token\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NO_REVOCATIONS = "[]".getBytes(StandardCharsets.UTF_8);
+
+    private final AtomicLong sequence = new AtomicLong();
+    private HttpServer stub;
+    private AuthCoreFilter filter;
+    private ContainerRequestContext hit;
+    private ContainerRequestContext signed;
+
+    @Setup
+    public void setup(BenchmarkParams params) throws Exception {
+        RSAKey key = new RSAKeyGenerator(2048).keyID("bench").generate();
+        byte[] jwks = new JWKSet(key.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8);
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.createContext("/authcore/api/auth/validate", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            respond(exchange, VALID);
+        });
+        stub.createContext("/authcore/api/auth/jwks", exchange -> respond(exchange, jwks));
+        stub.createContext("/authcore/api/auth/revocations", exchange -> respond(exchange, NO_REVOCATIONS));
+        stub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        stub.start();
+        /* AuthCore reads its settings once, so they must be set before the class is first touched */
+        String base = "http://127.0.0.1:" + stub.getAddress().getPort() + "/authcore/api/auth/";
+        System.setProperty("personahub.authcore.url", base + "validate");
+        if (params.getBenchmark().endsWith("localJwks")) {
+            System.setProperty("personahub.auth.mode", "local");
+            System.setProperty("personahub.auth.jwks.url", base + "jwks");
+            System.setProperty("personahub.auth.revocations.url", base + "revocations");
+        }
+        filter = new AuthCoreFilter();
+        hit = request("Bearer cached-token");
+        filter.filter(hit);
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(),
+                new JWTClaimsSet.Builder().subject("jdoe").jwtID("bench-token")
+                        .expirationTime(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1))).build());
+        jwt.sign(new RSASSASigner(key));
+        signed = request("Bearer " + jwt.serialize());
+        if (params.getBenchmark().endsWith("localJwks")) {
+            /* wait for the first revocation load, until then the verifier defers to AuthCore */
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (TokenVerifier.verify(jwt.serialize()) != TokenVerifier.Result.VALID) {
+                if (System.currentTimeMillis() > deadline) throw new IllegalStateException("local verification not ready");
+                Thread.sleep(50);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        stub.stop(0);
+    }
+
+    @Benchmark
+    public void cacheHit() throws Exception {
+        filter.filter(hit);
+    }
+
+    @Benchmark
+    public void cacheMiss() throws Exception {
+        filter.filter(request("Bearer token-" + sequence.incrementAndGet()));
+    }
+
+    @Benchmark
+    public void localJwks() throws Exception {
+        filter.filter(signed);
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /** Minimal request context; a rejected token surfaces as an exception rather than a silent abort. */
+    private static ContainerRequestContext request(String authorization) {
+        UriInfo uriInfo = (UriInfo) Proxy.newProxyInstance(UriInfo.class.getClassLoader(),
+                new Class<?>[]{UriInfo.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getPath" -> "persona/person/jdoe";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        return (ContainerRequestContext) Proxy.newProxyInstance(ContainerRequestContext.class.getClassLoader(),
+                new Class<?>[]{ContainerRequestContext.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getHeaderString" -> HttpHeaders.AUTHORIZATION.equals(args[0]) ? authorization : null;
+                    case "getUriInfo" -> uriInfo;
+                    case "getMethod" -> "GET";
+                    case "abortWith" -> throw new IllegalStateException("request rejected: "
+                            + ((Response) args[0]).getStatus());
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
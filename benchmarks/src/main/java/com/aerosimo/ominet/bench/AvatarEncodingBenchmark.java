@@ -0,0 +1,98 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      AvatarEncodingBenchmark.java                                    *
+ * Created:   17/10/2026, 20:51                                               *
+ * Modified:  17/10/2026, 20:51                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.bench;
+
+import com.aerosimo.ominet.core.media.AvatarUpload;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base64 avatar handling: encoding for the JSON avatar endpoint and decoding for /avatar/transfer,
+ * comparing a full in-memory decode with the streaming AvatarUpload path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dpersonahub.log.dir=target/bench-logs")
+@State(Scope.Benchmark)
+public class AvatarEncodingBenchmark {
+
+    /* a PNG signature keeps AvatarUpload's format sniffing happy */
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    @Param({"16384", "262144", "1048576"})
+    public int avatarBytes;
+
+    private byte[] avatar;
+    private String encoded;
+
+    @Setup
+    public void setup() {
+        avatar = new byte[avatarBytes];
+        for (int i = 0; i < avatar.length; i++) {
+            avatar[i] = (byte) (i * 31);
+        }
+        System.arraycopy(PNG_SIGNATURE, 0, avatar, 0, PNG_SIGNATURE.length);
+        encoded = "data:image/png;base64," + Base64.getEncoder().encodeToString(avatar);
+    }
+
+    @Benchmark
+    public String encode() {
+        return "data:image/png;base64," + Base64.getEncoder().encodeToString(avatar);
+    }
+
+    @Benchmark
+    public byte[] decode() {
+        return Base64.getDecoder().decode(encoded.substring(encoded.indexOf(',') + 1));
+    }
+
+    @Benchmark
+    public long decodeStreaming(Blackhole bh) throws IOException {
+        AvatarUpload upload = AvatarUpload.fromBase64(encoded);
+        byte[] buf = new byte[8192];
+        long total = 0;
+        try (InputStream in = upload.getStream()) {
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                bh.consume(buf);
+                total += n;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,136 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      DaoMappingBenchmark.java                                        *
+ * Created:   17/10/2026, 20:51                                               *
+ * Modified:  17/10/2026, 20:51                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.bench;
+
+import com.aerosimo.ominet.dao.impl.AddressResponseDTO;
+import com.aerosimo.ominet.dao.impl.ContactResponseDTO;
+import com.aerosimo.ominet.dao.impl.PersonResponseDTO;
+import com.aerosimo.ominet.dao.mapper.PersonaDAO;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cursor-to-DTO mapping in PersonaDAO, driven by an in-memory ResultSet so no database is needed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dpersonahub.log.dir=target/bench-logs")
+@State(Scope.Thread)
+public class DaoMappingBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int contacts;
+
+    private List<Map<String, String>> personRows;
+    private List<Map<String, String>> addressRows;
+    private List<Map<String, String>> contactRows;
+
+    @Setup
+    public void setup() {
+        Map<String, String> person = new HashMap<>();
+        person.put("username", "jdoe");
+        person.put("title", "Mr");
+        person.put("firstName", "John");
+        person.put("middleName", "Quincy");
+        person.put("lastName", "Doe");
+        person.put("zodiacSign", "Libra");
+        person.put("gender", "Male");
+        person.put("birthday", "1990-10-17");
+        person.put("age", "36");
+        person.put("modifiedBy", "system");
+        person.put("modifiedDate", "2026-10-17 12:00:00");
+        personRows = List.of(person);
+
+        Map<String, String> address = new HashMap<>();
+        address.put("username", "jdoe");
+        address.put("firstline", "1 High Street");
+        address.put("secondline", "Flat 2");
+        address.put("thirdline", "Westminster");
+        address.put("city", "London");
+        address.put("postcode", "SW1A 1AA");
+        address.put("country", "United Kingdom");
+        address.put("modifiedBy", "system");
+        address.put("modifiedDate", "2026-10-17 12:00:00");
+        addressRows = List.of(address);
+
+        contactRows = new ArrayList<>(contacts);
+        for (int i = 0; i < contacts; i++) {
+            Map<String, String> contact = new HashMap<>();
+            contact.put("username", "jdoe");
+            contact.put("channel", "email" + i);
+            contact.put("address", "jdoe" + i + "@example.com");
+            contact.put("consent", "Y");
+            contact.put("modifiedBy", "system");
+            contact.put("modifiedDate", "2026-10-17 12:00:00");
+            contactRows.add(contact);
+        }
+    }
+
+    @Benchmark
+    public PersonResponseDTO mapPerson() throws SQLException {
+        return PersonaDAO.mapPerson(cursor(personRows));
+    }
+
+    @Benchmark
+    public AddressResponseDTO mapAddress() throws SQLException {
+        return PersonaDAO.mapAddress(cursor(addressRows));
+    }
+
+    @Benchmark
+    public List<ContactResponseDTO> mapContacts() throws SQLException {
+        return PersonaDAO.mapContacts(cursor(contactRows));
+    }
+
+    /** Forward-only ResultSet over prepared rows; only the calls the mappers make are supported. */
+    static ResultSet cursor(List<Map<String, String>> rows) {
+        int[] position = {-1};
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "next" -> ++position[0] < rows.size();
+                    case "getString" -> rows.get(position[0]).get((String) args[0]);
+                    case "wasNull" -> false;
+                    case "close" -> null;
+                    case "isClosed" -> false;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
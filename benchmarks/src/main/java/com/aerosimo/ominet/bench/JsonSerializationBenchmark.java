@@ -0,0 +1,85 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      JsonSerializationBenchmark.java                                 *
+ * Created:   17/10/2026, 20:51                                               *
+ * Modified:  17/10/2026, 20:51                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.bench;
+
+import com.aerosimo.ominet.dao.impl.ImageResponseDTO;
+import com.aerosimo.ominet.dao.impl.PersonResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the response DTOs, including avatars encoded as data URIs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dpersonahub.log.dir=target/bench-logs")
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"16384", "262144", "1048576"})
+    public int avatarBytes;
+
+    private ObjectWriter writer;
+    private PersonResponseDTO person;
+    private ImageResponseDTO image;
+
+    @Setup
+    public void setup() {
+        writer = new ObjectMapper().writer();
+        person = new PersonResponseDTO("jdoe", "Mr", "John", "Quincy", "Doe", "Libra", "Male",
+                "1990-10-17", "36", "system", "2026-10-17 12:00:00");
+        byte[] avatar = new byte[avatarBytes];
+        new Random(42).nextBytes(avatar);
+        image = new ImageResponseDTO();
+        image.setUsername("jdoe");
+        image.setAvatar("data:image/png;base64," + Base64.getEncoder().encodeToString(avatar));
+        image.setModifiedBy("system");
+        image.setModifiedDate("2026-10-17 12:00:00");
+    }
+
+    @Benchmark
+    public byte[] person() throws Exception {
+        return writer.writeValueAsBytes(person);
+    }
+
+    @Benchmark
+    public byte[] image() throws Exception {
+        return writer.writeValueAsBytes(image);
+    }
+}
@@ -0,0 +1,109 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      ChangeStream.java                                               *
+ * Created:   17/10/2026, 21:23                                               *
+ * Modified:  17/10/2026, 21:23                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.api;
+
+import com.aerosimo.ominet.core.config.Settings;
+import com.aerosimo.ominet.dao.impl.APIResponseDTO;
+import com.aerosimo.ominet.dao.impl.ProfileChangeDTO;
+import com.aerosimo.ominet.dao.mapper.ProfileChanges;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes one {@link ProfileChanges.Subscription} to its SSE sink from a virtual thread of its own,
+ * so a slow client only ever stalls itself. A comment goes out every personahub.changes.heartbeatSeconds
+ * to keep proxies from timing the connection out and to notice clients that have gone away.
+ */
+class ChangeStream implements Runnable {
+
+    static final String CHANGE = "change";
+    static final String RESET = "reset";
+
+    private static final Logger log = LogManager.getLogger(ChangeStream.class.getName());
+    private static final long HEARTBEAT_SECONDS = Settings.getLong("personahub.changes.heartbeatSeconds", 20);
+    private static final long RECONNECT_MS = Settings.getLong("personahub.changes.reconnectMs", 2000);
+
+    private final Sse sse;
+    private final SseEventSink sink;
+    private final ProfileChanges.Subscription subscription;
+
+    private ChangeStream(Sse sse, SseEventSink sink, ProfileChanges.Subscription subscription) {
+        this.sse = sse;
+        this.sink = sink;
+        this.subscription = subscription;
+    }
+
+    static void start(Sse sse, SseEventSink sink, ProfileChanges.Subscription subscription) {
+        Thread.ofVirtual().name("personahub-changes").start(new ChangeStream(sse, sink, subscription));
+    }
+
+    @Override
+    public void run() {
+        try (sink) {
+            if (subscription.getResetId() != null) {
+                send(sse.newEventBuilder().name(RESET).id(subscription.getResetId()).reconnectDelay(RECONNECT_MS)
+                        .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                        .data(APIResponseDTO.class, new APIResponseDTO("reset",
+                                "missed changes are no longer available, re-read cached profiles"))
+                        .build());
+            }
+            while (!sink.isClosed() && !subscription.isOverflowed()) {
+                ProfileChangeDTO change = subscription.poll(HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+                send(change == null
+                        ? sse.newEventBuilder().comment("heartbeat").build()
+                        : sse.newEventBuilder().name(CHANGE).id(change.getId()).reconnectDelay(RECONNECT_MS)
+                                .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                                .data(ProfileChangeDTO.class, change)
+                                .build());
+            }
+            if (subscription.isOverflowed()) log.warn("Change stream subscriber fell behind and was disconnected");
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | ExecutionException | RuntimeException err) {
+            log.debug("Change stream closed: {}", err.getMessage());
+        } finally {
+            subscription.close();
+        }
+    }
+
+    private void send(OutboundSseEvent event) throws ExecutionException, InterruptedException {
+        sink.send(event).toCompletableFuture().get();
+    }
+}
@@ -4,7 +4,7 @@
  * Author:    eomisore                                                        *
  * File:      PersonaHubREST.java                                                *
  * Created:   29/11/2025, 23:57                                               *
- * Modified:  30/11/2025, 00:02                                               *
+ * Modified:  17/10/2026, 22:19                                               *
  *                                                                            *
  * Copyright (c)  2025.  Aerosimo Ltd                                         *
  *                                                                            *
@@ -31,25 +31,71 @@
 
 package com.aerosimo.ominet.api;
 
+import com.aerosimo.ominet.core.config.Settings;
+import com.aerosimo.ominet.core.limit.Bulkhead;
+import com.aerosimo.ominet.core.limit.Bulkheads;
+import com.aerosimo.ominet.core.media.AvatarUpload;
+import com.aerosimo.ominet.core.media.ImageFormat;
 import com.aerosimo.ominet.dao.impl.*;
-import com.aerosimo.ominet.dao.mapper.PersonaDAO;
+import com.aerosimo.ominet.dao.mapper.AvatarVariants;
+import com.aerosimo.ominet.dao.mapper.ProfileBatch;
+import com.aerosimo.ominet.dao.mapper.ProfileCache;
+import com.aerosimo.ominet.dao.mapper.ProfileChanges;
+import com.aerosimo.ominet.dao.mapper.ProfileComposer;
+import com.aerosimo.ominet.dao.mapper.ProfileImport;
+import com.aerosimo.ominet.dao.mapper.ProfileRepository;
+import com.aerosimo.ominet.dao.mapper.ProfileVersions;
+import com.aerosimo.ominet.security.Redact;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.glassfish.jersey.media.multipart.FormDataParam;
 
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.Base64;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Set;
 
 @Path("/profile")
 public class PersonaHubREST {
 
     private static final Logger log = LogManager.getLogger(PersonaHubREST.class);
+    private static final String NDJSON = "application/x-ndjson";
+    private static final MediaType NDJSON_TYPE = MediaType.valueOf(NDJSON);
+    private static final String CSV = "text/csv";
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final ObjectWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    private static final CacheControl REVALIDATE = revalidate();
+    private static final ProfileRepository profiles = ProfileRepository.instance();
+    private static final String AVATAR_TYPE = "X-Avatar-Content-Type";
+    private static final String AVATAR_SIZE = "X-Avatar-Size";
+    private static final String EXPORT_WATERMARK = "X-Export-Watermark";
+    private static final boolean EXPORT_ENABLED = Settings.getBoolean("personahub.export.enabled", false);
+    private static final long EXPORT_SKEW_MS = Settings.getLong("personahub.export.watermarkSkewSeconds", 60) * 1000;
 
     /* -------------------- Common Response Helpers -------------------- */
     private Response missingUsername() {
@@ -60,71 +106,295 @@ public class PersonaHubREST {
     }
 
     private Response badRequest(String message) {
-        log.error("Bad request parameter: " + message);
+        log.warn("Bad request parameter: {}", message);
         return Response.status(Response.Status.BAD_REQUEST)
                 .entity(new APIResponseDTO("unsuccessful", message))
                 .build();
     }
 
+    private Response tooLarge(String message) {
+        log.warn("Payload too large: {}", message);
+        return Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE)
+                .entity(new APIResponseDTO("unsuccessful", message))
+                .build();
+    }
+
     private Response okOrBad(APIResponseDTO resp) {
-        log.info("OK or Bad request parameter: " + resp);
+        log.debug("OK or Bad request parameter: {}", resp);
         return "success".equalsIgnoreCase(resp.getStatus())
                 ? Response.ok(resp).build()
                 : Response.status(Response.Status.BAD_REQUEST).entity(resp).build();
     }
 
+    private EntityTag avatarTag(ImageMetaDTO meta) {
+        return new EntityTag(Long.toHexString(meta.getSize()) + "-"
+                + Integer.toHexString(Objects.hash(meta.getUsername(), meta.getModifiedDate())));
+    }
+
+    private EntityTag variantTag(ImageMetaDTO meta, int size) {
+        return new EntityTag(avatarTag(meta).getValue() + "-" + AvatarVariants.snap(size));
+    }
+
+    private Response noAvatar() {
+        return Response.status(Response.Status.NOT_FOUND)
+                .type(MediaType.APPLICATION_JSON)
+                .entity(new APIResponseDTO("unsuccessful", "no avatar found"))
+                .build();
+    }
+
+    /* -------------------- Conditional GET Helpers -------------------- */
+    private static CacheControl revalidate() {
+        CacheControl cc = new CacheControl();
+        cc.setPrivate(true);
+        cc.setNoCache(true);
+        cc.setNoTransform(false);
+        return cc;
+    }
+
+    /**
+     * @return a 304 (or 412) response when the request's preconditions are met, otherwise null
+     */
+    private Response notModified(Request request, EntityTag tag, long lastModified) {
+        Response.ResponseBuilder rb = lastModified > 0
+                ? request.evaluatePreconditions(new Date(lastModified), tag)
+                : request.evaluatePreconditions(tag);
+        return rb == null ? null : rb.cacheControl(REVALIDATE).build();
+    }
+
+    /* answers from the version index alone, before any cache or database read */
+    private Response cachedVersion(Request request, ProfileCache.Entity entity, String username) {
+        ProfileVersions.Version version = ProfileVersions.get(entity, username);
+        return version == null ? null : notModified(request, new EntityTag(version.tag(), true), version.lastModified());
+    }
+
+    /* generation is taken before dto was read, so a save in between keeps the stale version out */
+    private Response versioned(Request request, ProfileCache.Entity entity, String username, long generation,
+                               Object dto, long lastModified) {
+        byte[] body;
+        try {
+            body = writer.writeValueAsBytes(dto);
+        } catch (JsonProcessingException e) {
+            throw new InternalServerErrorException(e);
+        }
+        ProfileVersions.Version version = ProfileVersions.put(entity, username, generation, body, lastModified);
+        EntityTag tag = new EntityTag(version.tag(), true);
+        Response notModified = notModified(request, tag, lastModified);
+        if (notModified != null) return notModified;
+        return conditional(Response.ok(body, MediaType.APPLICATION_JSON_TYPE), tag, lastModified).build();
+    }
+
+    private Response.ResponseBuilder conditional(Response.ResponseBuilder rb, EntityTag tag, long lastModified) {
+        rb.tag(tag).cacheControl(REVALIDATE);
+        if (lastModified > 0) rb.lastModified(new Date(lastModified));
+        return rb;
+    }
+
+    /* ======================= PROFILE ======================= */
+    @GET
+    @Path("/{username}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Bulkhead(Bulkhead.Group.PROFILE_READ)
+    public Response getProfile(@PathParam("username") String username, @QueryParam("avatarSize") Integer avatarSize) {
+        if (username == null || username.isEmpty()) return missingUsername();
+        if (avatarSize != null && avatarSize <= 0) return badRequest("avatarSize must be a positive number of pixels");
+        ProfileResponseDTO resp = ProfileComposer.compose(username, avatarSize);
+        if (resp.getPerson() == null && resp.getAddress() == null && resp.getContacts().isEmpty()
+                && resp.getAvatar() == null && resp.getUnavailable().isEmpty())
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(new APIResponseDTO("unsuccessful", "no profile found"))
+                    .build();
+        return Response.ok(resp).build();
+    }
+
     /* ======================= AVATAR ======================= */
     @POST
     @Path("/avatar/upload")
     @Consumes(MediaType.MULTIPART_FORM_DATA)
     @Produces(MediaType.APPLICATION_JSON)
+    @Bulkhead(Bulkhead.Group.AVATAR_WRITE)
     public Response uploadAvatar(
             @FormDataParam("username") String username,
             @FormDataParam("file") InputStream fileInputStream) {
         if (username == null || fileInputStream == null) return missingUsername();
-        return okOrBad(PersonaDAO.saveImage(username, fileInputStream));
+        try {
+            return saveAvatar(username, AvatarUpload.fromStream(fileInputStream));
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        } catch (IOException e) {
+            log.error("Unable to read uploaded avatar", e);
+            return badRequest("unable to read image");
+        }
     }
 
     @POST
     @Path("/avatar/transfer")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
+    @Bulkhead(Bulkhead.Group.AVATAR_WRITE)
     public Response uploadAvatarJson(ImageRequestDTO req) {
-        log.info("Uploading avatar image for user {} ", req.getUsername());
         if (req == null || req.getUsername() == null || req.getAvatar() == null)
             return badRequest("missing required fields");
+        log.info("Uploading avatar image for user {} ", Redact.pii(req.getUsername()));
         try {
-            String base64 = req.getAvatar().contains(",")
-                    ? req.getAvatar().split(",", 2)[1]
-                    : req.getAvatar();
-            byte[] bytes = Base64.getDecoder().decode(base64);
-            return okOrBad(PersonaDAO.saveImage(req.getUsername(), new ByteArrayInputStream(bytes)));
-        } catch (IllegalArgumentException e) {
+            return saveAvatar(req.getUsername(), AvatarUpload.fromBase64(req.getAvatar()));
+        } catch (AvatarUpload.AvatarTooLargeException e) {
+            return tooLarge(e.getMessage());
+        } catch (IllegalArgumentException | IOException e) {
             log.error("Invalid Base64 format", e);
             return badRequest("invalid base64 image format");
         }
     }
 
+    private Response saveAvatar(String username, AvatarUpload upload) {
+        APIResponseDTO resp = profiles.saveImage(username, upload);
+        if (upload.isOversized()) return tooLarge(resp.getMessage());
+        return okOrBad(resp);
+    }
+
     @GET
     @Path("/avatar/{username}")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getAvatar(@PathParam("username") String username) {
+    @Bulkhead(Bulkhead.Group.AVATAR_READ)
+    public Response getAvatar(@PathParam("username") String username, @QueryParam("size") Integer size,
+                              @Context Request request) {
         if (username == null || username.isEmpty()) return missingUsername();
-        ImageResponseDTO resp = PersonaDAO.getImage(username);
-        if (resp == null || resp.getAvatar() == null)
-            return Response.status(Response.Status.NOT_FOUND)
-                    .entity(new APIResponseDTO("unsuccessful", "no avatar found"))
+        if (size != null) return getAvatarVariant(username, size, request);
+        ImageMetaDTO meta = ProfileVersions.avatar(username);
+        if (meta == null) return noAvatar();
+        EntityTag tag = new EntityTag(avatarTag(meta).getValue(), true);
+        Response notModified = notModified(request, tag, meta.getModifiedTime());
+        if (notModified != null) return notModified;
+        ImageResponseDTO resp = ProfileCache.getImage(username);
+        if (resp == null || resp.getAvatar() == null) return noAvatar();
+        return conditional(Response.ok(resp), tag, meta.getModifiedTime()).build();
+    }
+
+    @GET
+    @Path("/avatar/{username}/raw")
+    @Produces(MediaType.WILDCARD)
+    @Bulkhead(Bulkhead.Group.AVATAR_READ)
+    public Response getAvatarRaw(@PathParam("username") String username, @QueryParam("size") Integer size,
+                                 @Context Request request) {
+        if (username == null || username.isEmpty()) return missingUsername();
+        if (size != null && size <= 0) return badRequest("size must be a positive number of pixels");
+        ImageMetaDTO meta = ProfileVersions.avatar(username);
+        if (meta == null) return noAvatar();
+        EntityTag tag = rawTag(meta, size);
+        Response notModified = notModified(request, tag, meta.getModifiedTime());
+        if (notModified != null) return notModified;
+        if (size != null) {
+            byte[] png = renderVariant(meta, size);
+            if (png == null) return noAvatar();
+            return conditional(Response.ok(png, ImageFormat.PNG.getContentType()), tag, meta.getModifiedTime())
                     .build();
-        return Response.ok(resp).build();
+        }
+        // one BLOB read; should the cached metadata be stale, nothing is written and the retry sees fresh metadata
+        StreamingOutput body = out -> {
+            if (!profiles.writeImage(meta, out)) {
+                ProfileCache.invalidate(ProfileCache.Entity.AVATAR, username);
+                throw new WebApplicationException(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, 1).build());
+            }
+        };
+        return conditional(Response.ok(body, meta.getContentType()), tag, meta.getModifiedTime())
+                .header(HttpHeaders.CONTENT_LENGTH, meta.getSize())
+                .build();
+    }
+
+    /**
+     * Headers of the JSON avatar without reading the image: answered from the avatar metadata.
+     */
+    @HEAD
+    @Path("/avatar/{username}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Bulkhead(Bulkhead.Group.AVATAR_READ)
+    public Response headAvatar(@PathParam("username") String username, @QueryParam("size") Integer size,
+                               @Context Request request) {
+        if (username == null || username.isEmpty()) return missingUsername();
+        if (size != null && size <= 0) return badRequest("size must be a positive number of pixels");
+        ImageMetaDTO meta = ProfileVersions.avatar(username);
+        if (meta == null) return Response.status(Response.Status.NOT_FOUND).build();
+        EntityTag tag = new EntityTag(rawTag(meta, size).getValue(), true);
+        Response notModified = notModified(request, tag, meta.getModifiedTime());
+        if (notModified != null) return notModified;
+        return conditional(Response.ok().type(MediaType.APPLICATION_JSON_TYPE), tag, meta.getModifiedTime())
+                .header(AVATAR_TYPE, meta.getContentType())
+                .header(AVATAR_SIZE, meta.getSize())
+                .build();
+    }
+
+    @HEAD
+    @Path("/avatar/{username}/raw")
+    @Produces(MediaType.WILDCARD)
+    @Bulkhead(Bulkhead.Group.AVATAR_READ)
+    public Response headAvatarRaw(@PathParam("username") String username, @QueryParam("size") Integer size,
+                                  @Context Request request) {
+        if (username == null || username.isEmpty()) return missingUsername();
+        if (size != null && size <= 0) return badRequest("size must be a positive number of pixels");
+        ImageMetaDTO meta = ProfileVersions.avatar(username);
+        if (meta == null) return Response.status(Response.Status.NOT_FOUND).build();
+        EntityTag tag = rawTag(meta, size);
+        Response notModified = notModified(request, tag, meta.getModifiedTime());
+        if (notModified != null) return notModified;
+        if (size != null) {
+            return conditional(Response.ok().type(ImageFormat.PNG.getContentType()), tag, meta.getModifiedTime())
+                    .build();
+        }
+        return conditional(Response.ok().type(meta.getContentType()), tag, meta.getModifiedTime())
+                .header(HttpHeaders.CONTENT_LENGTH, meta.getSize())
+                .build();
+    }
+
+    @GET
+    @Path("/avatar/{username}/meta")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Bulkhead(Bulkhead.Group.AVATAR_READ)
+    public Response getAvatarMeta(@PathParam("username") String username) {
+        if (username == null || username.isEmpty()) return missingUsername();
+        return Response.ok(new AvatarMetaResponseDTO(username, ProfileVersions.avatar(username))).build();
+    }
+
+    private EntityTag rawTag(ImageMetaDTO meta, Integer size) {
+        return size == null ? avatarTag(meta) : variantTag(meta, size);
+    }
+
+    private Response getAvatarVariant(String username, int size, Request request) {
+        if (size <= 0) return badRequest("size must be a positive number of pixels");
+        ImageMetaDTO meta = ProfileVersions.avatar(username);
+        if (meta == null) return noAvatar();
+        EntityTag tag = new EntityTag(variantTag(meta, size).getValue(), true);
+        Response notModified = notModified(request, tag, meta.getModifiedTime());
+        if (notModified != null) return notModified;
+        try {
+            ImageResponseDTO resp = AvatarVariants.variant(meta, size);
+            return resp == null ? noAvatar() : conditional(Response.ok(resp), tag, meta.getModifiedTime()).build();
+        } catch (IOException e) {
+            log.error("Unable to render {}px avatar for {}", size, Redact.pii(username), e);
+            return Response.serverError()
+                    .entity(new APIResponseDTO("error", "unable to render avatar"))
+                    .build();
+        }
+    }
+
+    private byte[] renderVariant(ImageMetaDTO meta, int size) {
+        try {
+            return AvatarVariants.get(meta, size);
+        } catch (IOException e) {
+            log.error("Unable to render {}px avatar for {}", size, Redact.pii(meta.getUsername()), e);
+            throw new InternalServerErrorException(Response.serverError()
+                    .entity(new APIResponseDTO("error", "unable to render avatar"))
+                    .build());
+        }
     }
 
     @DELETE
     @Path("/avatar")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
+    @Bulkhead(Bulkhead.Group.AVATAR_WRITE)
     public Response deleteAvatar(APIRequestDTO req) {
         if (req == null || req.getUsername() == null) return missingUsername();
-        return okOrBad(PersonaDAO.removeImage(req.getUsername()));
+        return okOrBad(profiles.removeImage(req.getUsername()));
     }
 
     /* ======================= ADDRESS ======================= */
@@ -132,9 +402,10 @@ public class PersonaHubREST {
     @Path("/address")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
+    @Bulkhead(Bulkhead.Group.PROFILE_WRITE)
     public Response saveAddress(AddressRequestDTO req) {
         if (req == null || req.getUsername() == null) return missingUsername();
-        return okOrBad(PersonaDAO.saveAddress(
+        return okOrBad(profiles.saveAddress(
                 req.getUsername(), req.getFirstline(), req.getSecondline(), req.getThirdline(),
                 req.getCity(), req.getPostcode(), req.getCountry()
         ));
@@ -143,23 +414,29 @@ public class PersonaHubREST {
     @GET
     @Path("/address/{username}")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getAddress(@PathParam("username") String username) {
+    @Bulkhead(Bulkhead.Group.PROFILE_READ)
+    public Response getAddress(@PathParam("username") String username, @Context Request request) {
         if (username == null || username.isEmpty()) return missingUsername();
-        AddressResponseDTO resp = PersonaDAO.getAddress(username);
+        Response notModified = cachedVersion(request, ProfileCache.Entity.ADDRESS, username);
+        if (notModified != null) return notModified;
+        long generation = ProfileVersions.generation(ProfileCache.Entity.ADDRESS, username);
+        AddressResponseDTO resp = ProfileCache.getAddress(username);
         if (resp == null || resp.getUsername() == null)
             return Response.status(Response.Status.NOT_FOUND)
                     .entity(new APIResponseDTO("unsuccessful", "no address found"))
                     .build();
-        return Response.ok(resp).build();
+        return versioned(request, ProfileCache.Entity.ADDRESS, username, generation, resp,
+                ProfileVersions.lastModified(resp.getModifiedDate()));
     }
 
     @DELETE
     @Path("/address")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
+    @Bulkhead(Bulkhead.Group.PROFILE_WRITE)
     public Response removeAddress(APIRequestDTO req) {
         if (req == null || req.getUsername() == null) return missingUsername();
-        return okOrBad(PersonaDAO.removeAddress(req.getUsername()));
+        return okOrBad(profiles.removeAddress(req.getUsername()));
     }
 
     /* ======================= CONTACT ======================= */
@@ -167,6 +444,7 @@ public class PersonaHubREST {
     @Path("/contact")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
+    @Bulkhead(Bulkhead.Group.PROFILE_WRITE)
     public Response saveContact(List<ContactRequestDTO> reqList) {
         if (reqList == null || reqList.isEmpty())
             return badRequest("No contact records supplied");
@@ -174,29 +452,37 @@ public class PersonaHubREST {
             if (r.getUsername() == null || r.getChannel() == null || r.getAddress() == null)
                 return badRequest("Missing required fields in one or more records");
         }
-        return okOrBad(PersonaDAO.saveContacts(reqList));
+        return okOrBad(profiles.saveContacts(reqList));
     }
 
     @GET
     @Path("/contact/{username}")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getContact(@PathParam("username") String username) {
+    @Bulkhead(Bulkhead.Group.PROFILE_READ)
+    public Response getContact(@PathParam("username") String username, @Context Request request) {
         if (username == null || username.isEmpty()) return missingUsername();
-        List<ContactResponseDTO> list = PersonaDAO.getContact(username);
+        Response notModified = cachedVersion(request, ProfileCache.Entity.CONTACT, username);
+        if (notModified != null) return notModified;
+        long generation = ProfileVersions.generation(ProfileCache.Entity.CONTACT, username);
+        List<ContactResponseDTO> list = ProfileCache.getContact(username);
         if (list == null || list.isEmpty())
             return Response.status(Response.Status.NOT_FOUND)
                     .entity(new APIResponseDTO("unsuccessful", "no contact records found"))
                     .build();
-        return Response.ok(list).build();
+        long lastModified = list.stream()
+                .mapToLong(contact -> ProfileVersions.lastModified(contact.getModifiedDate()))
+                .max().orElse(0);
+        return versioned(request, ProfileCache.Entity.CONTACT, username, generation, list, lastModified);
     }
 
     @DELETE
     @Path("/contact")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
+    @Bulkhead(Bulkhead.Group.PROFILE_WRITE)
     public Response removeContact(DeleteContactDTO req) {
         if (req == null || req.getUsername() == null) return missingUsername();
-        return okOrBad(PersonaDAO.removeContact(req.getUsername(), req.getChannel()));
+        return okOrBad(profiles.removeContact(req.getUsername(), req.getChannel()));
     }
 
     /* ======================= PERSON ======================= */
@@ -204,9 +490,10 @@ public class PersonaHubREST {
     @Path("/person")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
+    @Bulkhead(Bulkhead.Group.PROFILE_WRITE)
     public Response savePerson(PersonRequestDTO req) {
         if (req == null || req.getUsername() == null) return missingUsername();
-        return okOrBad(PersonaDAO.savePerson(
+        return okOrBad(profiles.savePerson(
                 req.getUsername(), req.getTitle(), req.getFirstName(),
                 req.getMiddleName(),req.getLastName(), req.getGender(), req.getBirthday()
         ));
@@ -215,32 +502,278 @@ public class PersonaHubREST {
     @GET
     @Path("/person/{username}")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getPerson(@PathParam("username") String username) {
+    @Bulkhead(Bulkhead.Group.PROFILE_READ)
+    public Response getPerson(@PathParam("username") String username, @Context Request request) {
         if (username == null || username.isEmpty()) return missingUsername();
-        PersonResponseDTO resp = PersonaDAO.getPerson(username);
+        Response notModified = cachedVersion(request, ProfileCache.Entity.PERSON, username);
+        if (notModified != null) return notModified;
+        long generation = ProfileVersions.generation(ProfileCache.Entity.PERSON, username);
+        PersonResponseDTO resp = ProfileCache.getPerson(username);
         if (resp == null || resp.getUsername() == null)
             return Response.status(Response.Status.NOT_FOUND)
                     .entity(new APIResponseDTO("unsuccessful", "no person record found"))
                     .build();
-        return Response.ok(resp).build();
+        return versioned(request, ProfileCache.Entity.PERSON, username, generation, resp,
+                ProfileVersions.lastModified(resp.getModifiedDate()));
     }
 
     @DELETE
     @Path("/person")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
+    @Bulkhead(Bulkhead.Group.PROFILE_WRITE)
     public Response removePerson(APIRequestDTO req) {
         if (req == null || req.getUsername() == null) return missingUsername();
-        return okOrBad(PersonaDAO.removePerson(req.getUsername()));
+        return okOrBad(profiles.removePerson(req.getUsername()));
+    }
+
+    /* ======================= BATCH ======================= */
+    @POST
+    @Path("/person/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, NDJSON})
+    @Bulkhead(Bulkhead.Group.PROFILE_READ)
+    public Response getPersons(BatchRequestDTO req, @Context HttpHeaders headers) {
+        Set<String> usernames = batchUsernames(req);
+        if (usernames == null) return batchTooLarge();
+        return batch(ProfileCache.getPersons(usernames).values(), headers);
+    }
+
+    @POST
+    @Path("/address/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, NDJSON})
+    @Bulkhead(Bulkhead.Group.PROFILE_READ)
+    public Response getAddresses(BatchRequestDTO req, @Context HttpHeaders headers) {
+        Set<String> usernames = batchUsernames(req);
+        if (usernames == null) return batchTooLarge();
+        return batch(ProfileCache.getAddresses(usernames).values(), headers);
+    }
+
+    @POST
+    @Path("/contact/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, NDJSON})
+    @Bulkhead(Bulkhead.Group.PROFILE_READ)
+    public Response getContacts(BatchRequestDTO req, @Context HttpHeaders headers) {
+        Set<String> usernames = batchUsernames(req);
+        if (usernames == null) return batchTooLarge();
+        List<ContactResponseDTO> contacts = new ArrayList<>();
+        ProfileCache.getContacts(usernames).values().forEach(contacts::addAll);
+        return batch(contacts, headers);
+    }
+
+    @POST
+    @Path("/avatar/meta/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, NDJSON})
+    @Bulkhead(Bulkhead.Group.AVATAR_READ)
+    public Response getAvatarMetas(BatchRequestDTO req, @Context HttpHeaders headers) {
+        Set<String> usernames = batchUsernames(req);
+        if (usernames == null) return batchTooLarge();
+        Map<String, ImageMetaDTO> metas = ProfileBatch.fetch(usernames, profiles::getImageMetas);
+        List<AvatarMetaResponseDTO> items = new ArrayList<>(usernames.size());
+        for (String username : usernames) {
+            items.add(new AvatarMetaResponseDTO(username, metas.get(username)));
+        }
+        return batch(items, headers);
+    }
+
+    /** Distinct, non-empty usernames in request order, or null when the batch is over the limit. */
+    private Set<String> batchUsernames(BatchRequestDTO req) {
+        Set<String> usernames = new LinkedHashSet<>();
+        if (req != null && req.getUsernames() != null) {
+            for (String username : req.getUsernames()) {
+                if (username != null && !username.isEmpty()) usernames.add(username);
+            }
+        }
+        return usernames.size() > ProfileBatch.MAX_USERNAMES ? null : usernames;
+    }
+
+    private Response batchTooLarge() {
+        return badRequest("at most " + ProfileBatch.MAX_USERNAMES + " usernames are allowed per batch");
+    }
+
+    private Response batch(Collection<?> items, HttpHeaders headers) {
+        boolean ndjson = headers.getAcceptableMediaTypes().stream()
+                .anyMatch(type -> !type.isWildcardType() && NDJSON_TYPE.isCompatible(type));
+        StreamingOutput body = out -> {
+            try (JsonGenerator gen = mapper.getFactory().createGenerator(out)) {
+                gen.setRootValueSeparator(null);
+                if (!ndjson) gen.writeStartArray();
+                for (Object item : items) {
+                    writer.writeValue(gen, item);
+                    if (ndjson) gen.writeRaw('\n');
+                }
+                if (!ndjson) gen.writeEndArray();
+            }
+        };
+        return Response.ok(body, ndjson ? NDJSON_TYPE : MediaType.APPLICATION_JSON_TYPE).build();
+    }
+
+    /* ======================= CHANGES ======================= */
+    /**
+     * Server-sent change events for successful profile writes, optionally only for some usernames
+     * (?username=a&username=b, or comma separated). A reconnecting client sends Last-Event-ID and is
+     * replayed the buffered changes it missed. Not in a bulkhead: the stream holds no database
+     * resources and is capped by personahub.changes.maxSubscribers instead.
+     */
+    @GET
+    @Path("/changes")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void changes(@QueryParam("username") List<String> usernames,
+                        @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) String lastEventId,
+                        @Context SseEventSink sink, @Context Sse sse) {
+        Set<String> filter = new LinkedHashSet<>();
+        for (String value : usernames) {
+            for (String username : value.split(",")) {
+                if (!username.isBlank()) filter.add(username.trim());
+            }
+        }
+        if (filter.size() > ProfileBatch.MAX_USERNAMES) {
+            throw new WebApplicationException(Response.fromResponse(batchTooLarge()).type(MediaType.APPLICATION_JSON).build());
+        }
+        ProfileChanges.Subscription subscription = ProfileChanges.subscribe(filter, lastEventId);
+        if (subscription == null) {
+            log.warn("Change stream refused, {} subscribers already connected", ProfileChanges.getSubscribers());
+            throw new WebApplicationException(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, Bulkheads.RETRY_AFTER_SECONDS)
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity(new APIResponseDTO("unavailable", "too many change stream subscribers, retry later"))
+                    .build());
+        }
+        ChangeStream.start(sse, sink, subscription);
+    }
+
+    /* ======================= EXPORT ======================= */
+    /**
+     * Every profile's person, address and contacts as NDJSON, written from one database cursor as
+     * the rows are fetched and compressed on the fly when the client accepts it. ?since= limits the
+     * export to profiles modified at or after that time; X-Export-Watermark is the since for the
+     * next run: the database time the cursor was opened at, less a skew so rows committed meanwhile
+     * are sent again rather than missed. The cursor is opened before the response so the header can
+     * carry that time, and is closed once the body has been written.
+     */
+    @GET
+    @Path("/export")
+    @Produces(NDJSON)
+    @Bulkhead(Bulkhead.Group.EXPORT)
+    public Response export(@QueryParam("since") String since) {
+        if (!EXPORT_ENABLED) return Response.status(Response.Status.NOT_FOUND).build();
+        long from = 0;
+        if (since != null && !since.isBlank()) {
+            from = ProfileVersions.lastModified(since);
+            if (from <= 0) {
+                return Response.fromResponse(badRequest("since must be a timestamp such as 2025-11-15 23:39:00"))
+                        .type(MediaType.APPLICATION_JSON).build();
+            }
+        }
+        long modifiedSince = from;
+        ProfileRepository.Export export;
+        try {
+            export = profiles.export(modifiedSince);
+        } catch (IOException err) {
+            return Response.serverError().type(MediaType.APPLICATION_JSON)
+                    .entity(new APIResponseDTO("error", "unable to start the export"))
+                    .build();
+        }
+        String watermark = new Timestamp(export.watermark() - EXPORT_SKEW_MS).toString();
+        StreamingOutput body = out -> {
+            try (export) {
+                // not closed on failure, so a broken export is not ended like a complete one
+                JsonGenerator gen = mapper.getFactory().createGenerator(out);
+                gen.setRootValueSeparator(null);
+                long rows = export.stream((username, person, address, contacts) -> {
+                    gen.writeStartObject();
+                    gen.writeStringField("username", username);
+                    gen.writeFieldName("person");
+                    writer.writeValue(gen, person);
+                    gen.writeFieldName("address");
+                    writer.writeValue(gen, address);
+                    gen.writeFieldName("contacts");
+                    writer.writeValue(gen, contacts);
+                    gen.writeEndObject();
+                    gen.writeRaw('\n');
+                });
+                gen.close();
+                log.info("Exported {} profiles modified since {}", rows, modifiedSince > 0 ? since : "the beginning");
+            }
+        };
+        return Response.ok(body, NDJSON_TYPE).header(EXPORT_WATERMARK, watermark).build();
+    }
+
+    /* ======================= IMPORT ======================= */
+    /**
+     * Bulk import of NDJSON profile records (as written by /export, plus "contacts") or CSV rows.
+     * Answers once the whole body is processed. An import that was cut off is continued by posting
+     * the same file again with ?resume=&lt;importId&gt;; records up to its checkpoint are skipped.
+     */
+    @POST
+    @Path("/import")
+    @Consumes({NDJSON, CSV})
+    @Produces(MediaType.APPLICATION_JSON)
+    @Bulkhead(Bulkhead.Group.IMPORT)
+    public Response importProfiles(InputStream body, @QueryParam("resume") String resume, @Context HttpHeaders headers) {
+        MediaType type = headers.getMediaType();
+        ProfileImport.Format format = type != null && MediaType.valueOf(CSV).isCompatible(type)
+                ? ProfileImport.Format.CSV : ProfileImport.Format.NDJSON;
+        try {
+            ImportResponseDTO result = ProfileImport.run(resume, format, body);
+            Response.Status status = "completed".equals(result.getStatus())
+                    ? Response.Status.OK : Response.Status.BAD_REQUEST;
+            return Response.status(status).entity(result).build();
+        } catch (NoSuchElementException err) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(new APIResponseDTO("unsuccessful", err.getMessage()))
+                    .build();
+        } catch (IllegalStateException err) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(new APIResponseDTO("unsuccessful", err.getMessage()))
+                    .build();
+        } catch (IOException err) {
+            log.error("Import failed", err);
+            return Response.serverError()
+                    .entity(new APIResponseDTO("error", "internal server error"))
+                    .build();
+        }
+    }
+
+    @GET
+    @Path("/import/{importId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getImport(@PathParam("importId") String importId) throws IOException {
+        ImportResponseDTO progress = ProfileImport.status(importId);
+        if (progress == null) return noImport(importId);
+        return Response.ok(progress).build();
+    }
+
+    /** The import's rejected records as NDJSON: record number, username, part and reason. */
+    @GET
+    @Path("/import/{importId}/errors")
+    @Produces({NDJSON, MediaType.APPLICATION_JSON})
+    public Response getImportErrors(@PathParam("importId") String importId) {
+        java.nio.file.Path report = ProfileImport.errors(importId);
+        if (report == null) return Response.fromResponse(noImport(importId)).type(MediaType.APPLICATION_JSON).build();
+        StreamingOutput body = out -> Files.copy(report, out);
+        return Response.ok(body, NDJSON_TYPE)
+                .header("Content-Disposition", "attachment; filename=\"" + importId + "-errors.ndjson\"")
+                .build();
+    }
+
+    private Response noImport(String importId) {
+        return Response.status(Response.Status.NOT_FOUND)
+                .entity(new APIResponseDTO("unsuccessful", "no import " + importId))
+                .build();
     }
 
     /* ======================= METRICS ======================= */
     @GET
     @Path("/metrics/{username}")
     @Produces(MediaType.APPLICATION_JSON)
+    @Bulkhead(Bulkhead.Group.PROFILE_READ)
     public Response getMetrics(@PathParam("username") String username) {
         if (username == null || username.isEmpty()) return missingUsername();
-        APIResponseDTO resp = PersonaDAO.getMetrics(username);
+        APIResponseDTO resp = profiles.getMetrics(username);
         return Response.ok(resp).build();
     }
 }
\ No newline at end of file
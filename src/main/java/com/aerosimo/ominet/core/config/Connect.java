@@ -4,7 +4,7 @@
  * Author:    eomisore                                                        *
  * File:      Connect.java                                                    *
  * Created:   15/11/2025, 23:31                                               *
- * Modified:  15/11/2025, 23:31                                               *
+ * Modified:  17/10/2026, 22:16                                               *
  *                                                                            *
  * Copyright (c)  2025.  Aerosimo Ltd                                         *
  *                                                                            *
@@ -31,40 +31,295 @@
 
 package com.aerosimo.ominet.core.config;
 
+import com.aerosimo.ominet.core.metrics.Telemetry;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OracleStatement;
+import oracle.ucp.jdbc.PoolDataSource;
+import oracle.ucp.jdbc.PoolDataSourceFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
 import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
- * Utility class to fetch JavaMail Session from JNDI safely.
+ * Utility class to hand out Oracle connections.
+ * The DataSource is resolved once from JNDI ("jdbc/hats") and cached; when JNDI is not
+ * available a built-in UCP pool is created from the personahub.db.* settings instead.
+ * Checkouts are gated by a bounded number of permits so callers fail fast under pressure.
+ * Permit waits and stored procedure executions are timed into {@link Telemetry}.
+ * Every connection has the driver's implicit statement cache enabled, so repeated
+ * prepareCall of the same SQL text reuses the open cursor; prepares are counted per
+ * procedure as cache hits or misses, as reported by the driver for each statement.
  */
 public class Connect {
 
     private static final Logger log = LogManager.getLogger(Connect.class);
 
+    private static final String JNDI_NAME = Settings.get("personahub.db.jndi", "java:/comp/env/jdbc/hats");
+    private static final int MAX_ACTIVE = Settings.getInt("personahub.db.maxActive", 50);
+    private static final long ACQUIRE_TIMEOUT_MS = Settings.getLong("personahub.db.acquireTimeoutMs", 2000);
+    private static final int STATEMENT_CACHE_SIZE = Settings.getInt("personahub.db.statementCacheSize", 32);
+
+    private static final Semaphore permits = new Semaphore(MAX_ACTIVE);
+    private static final LongAdder acquired = new LongAdder();
+    private static final LongAdder timeouts = new LongAdder();
+    private static final LongAdder waitNanos = new LongAdder();
+    private static final AtomicLong maxWaitNanos = new AtomicLong();
+    private static final Pattern PROCEDURE = Pattern.compile("\\b(\\w+_pkg\\.\\w+)", Pattern.CASE_INSENSITIVE);
+    private static final Map<String, String> procedures = new ConcurrentHashMap<>();
+    private static final AtomicBoolean cacheUnavailable = new AtomicBoolean();
+
+    private static volatile DataSource dataSource;
+    private static volatile String source = "unresolved";
+
+    /**
+     * Returns a connection from the cached DataSource.
+     * Closing the connection returns it to the pool and frees its permit.
+     *
+     * @return Java SQL connection, never null
+     * @throws SQLException if no DataSource can be resolved or the pool stays saturated
+     *                      for longer than personahub.db.acquireTimeoutMs
+     */
+    public static Connection dbase() throws SQLException {
+        DataSource ds = dataSource();
+        long start = System.nanoTime();
+        boolean permitted;
+        try {
+            permitted = permits.tryAcquire(ACQUIRE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", err);
+        }
+        long waited = System.nanoTime() - start;
+        waitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        Telemetry.record("personahub.db.acquire", waited, "outcome", permitted ? "acquired" : "timeout");
+        if (!permitted) {
+            timeouts.increment();
+            log.warn("Database pool saturated: {} of {} connections busy after waiting {} ms",
+                    MAX_ACTIVE - permits.availablePermits(), MAX_ACTIVE, ACQUIRE_TIMEOUT_MS);
+            throw new SQLTransientConnectionException("Database connection pool saturated, try again later");
+        }
+        try {
+            Connection con = ds.getConnection();
+            Object physical = statementCache(con);
+            acquired.increment();
+            log.debug("Connection acquired from {} DataSource in {} µs", source, waited / 1000);
+            return release(con, physical);
+        } catch (SQLException | RuntimeException err) {
+            permits.release();
+            throw err;
+        }
+    }
+
     /**
-     * Returns a connection via JDBC Data Sources from JNDI ("jdbc/hats").
-     * Each call does a fresh lookup to avoid stale references.
+     * Returns a snapshot of the connection gate, used for saturation and wait time reporting.
+     */
+    public static PoolStats stats() {
+        long count = acquired.sum() + timeouts.sum();
+        return new PoolStats(source, MAX_ACTIVE, MAX_ACTIVE - permits.availablePermits(),
+                permits.getQueueLength(), acquired.sum(), timeouts.sum(),
+                count == 0 ? 0 : waitNanos.sum() / count / 1_000_000,
+                maxWaitNanos.get() / 1_000_000);
+    }
+
+    private static DataSource dataSource() throws SQLException {
+        DataSource ds = dataSource;
+        if (ds == null) {
+            synchronized (Connect.class) {
+                ds = dataSource;
+                if (ds == null) {
+                    ds = resolve();
+                    dataSource = ds;
+                }
+            }
+        }
+        return ds;
+    }
+
+    private static DataSource resolve() throws SQLException {
+        try {
+            DataSource ds = (DataSource) new InitialContext().lookup(JNDI_NAME);
+            source = "jndi";
+            log.info("Resolved Oracle DataSource from JNDI {}", JNDI_NAME);
+            return ds;
+        } catch (NamingException err) {
+            String url = Settings.get("personahub.db.url", null);
+            if (url == null) {
+                log.error("JNDI lookup for Oracle DB failed and no personahub.db.url is configured", err);
+                throw new SQLException("No DataSource available at " + JNDI_NAME, err);
+            }
+            log.warn("JNDI lookup for {} failed, falling back to built-in pool for {}", JNDI_NAME, url);
+            DataSource ds = pool(url);
+            source = "ucp";
+            return ds;
+        }
+    }
+
+    private static DataSource pool(String url) throws SQLException {
+        PoolDataSource pds = PoolDataSourceFactory.getPoolDataSource();
+        pds.setConnectionFactoryClassName("oracle.jdbc.pool.OracleDataSource");
+        pds.setConnectionPoolName("personahub");
+        pds.setURL(url);
+        pds.setUser(Settings.get("personahub.db.user", null));
+        pds.setPassword(Settings.get("personahub.db.password", null));
+        pds.setInitialPoolSize(Settings.getInt("personahub.db.minIdle", 2));
+        pds.setMinPoolSize(Settings.getInt("personahub.db.minIdle", 2));
+        pds.setMaxPoolSize(MAX_ACTIVE);
+        pds.setConnectionWaitDuration(Duration.ofMillis(ACQUIRE_TIMEOUT_MS));
+        pds.setValidateConnectionOnBorrow(true);
+        pds.setMaxStatements(STATEMENT_CACHE_SIZE);
+        return pds;
+    }
+
+    /*
+     * Pooled physical connections keep their cache between checkouts, so this only does work the
+     * first time a connection is seen. A JNDI pool that hides the Oracle connection is logged once.
      *
-     * @return Java SQL connection or null if lookup fails
+     * @return the driver connection beneath the pool's wrapper, whose cache is in use, or null
+     *         when there is none
      */
-    public static Connection dbase() {
-        log.debug("Fetching a new connection from Oracle DataSource");
-        Connection con = null;
-        try{
-            log.info("Looking up JNDI DataSource for Oracle DB");
-            InitialContext ctx = new InitialContext();
-            DataSource ds = (DataSource) ctx.lookup("java:/comp/env/jdbc/hats");
-            con = ds.getConnection();
-            log.info("Connection Established successfully");
-        } catch (NamingException | SQLException err) {
-            log.error("JNDI lookup for Oracle DB failed", err);
+    private static Object statementCache(Connection con) {
+        if (STATEMENT_CACHE_SIZE <= 0) return null;
+        try {
+            OracleConnection oracle = con.unwrap(OracleConnection.class);
+            if (!oracle.getImplicitCachingEnabled()) {
+                oracle.setStatementCacheSize(STATEMENT_CACHE_SIZE);
+                oracle.setImplicitCachingEnabled(true);
+                log.debug("Enabled implicit statement cache of {} on {} connection", STATEMENT_CACHE_SIZE, source);
+            }
+            return oracle;
+        } catch (SQLException err) {
+            if (cacheUnavailable.compareAndSet(false, true)) {
+                log.warn("Implicit statement cache not available on {} connections: {}", source, err.getMessage());
+            }
+            return null;
+        }
+    }
+
+    private static Connection release(Connection con, Object physical) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connect.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && closed.compareAndSet(false, true)) {
+                        try {
+                            con.close();
+                        } finally {
+                            permits.release();
+                        }
+                        return null;
+                    }
+                    if ("prepareCall".equals(method.getName())) {
+                        CallableStatement stmt = (CallableStatement) invoke(con, method, args);
+                        String procedure = procedure((String) args[0]);
+                        Telemetry.count("personahub.db.prepares", "procedure", procedure,
+                                "cache", cacheState(physical, stmt));
+                        return timed(stmt, procedure);
+                    }
+                    return invoke(con, method, args);
+                });
+    }
+
+    /* times the execute calls of a statement, tagged with the package procedure it runs */
+    private static CallableStatement timed(CallableStatement stmt, String procedure) {
+        return (CallableStatement) Proxy.newProxyInstance(Connect.class.getClassLoader(),
+                new Class<?>[]{CallableStatement.class}, (proxy, method, args) -> {
+                    if (!method.getName().startsWith("execute")) {
+                        return invoke(stmt, method, args);
+                    }
+                    long start = System.nanoTime();
+                    String outcome = "error";
+                    try {
+                        Object result = invoke(stmt, method, args);
+                        outcome = "success";
+                        return result;
+                    } finally {
+                        Telemetry.record("personahub.db.calls", System.nanoTime() - start,
+                                "procedure", procedure, "outcome", outcome);
+                    }
+                });
+    }
+
+    private static String procedure(String sql) {
+        return procedures.computeIfAbsent(sql, text -> {
+            Matcher m = PROCEDURE.matcher(text);
+            return m.find() ? m.group(1) : "sql";
+        });
+    }
+
+    /* "hit" when the driver took the statement from the implicit cache, "miss" when it parsed anew */
+    private static String cacheState(Object physical, CallableStatement stmt) {
+        if (physical == null) return "off";
+        try {
+            return stmt.unwrap(OracleStatement.class).creationState() == OracleStatement.IMPLICIT ? "hit" : "miss";
+        } catch (SQLException err) {
+            return "off";
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException err) {
+            throw err.getCause();
+        }
+    }
+
+    public static class PoolStats {
+        private final String source;
+        private final int maxActive;
+        private final int active;
+        private final int waiting;
+        private final long acquired;
+        private final long timeouts;
+        private final long avgWaitMillis;
+        private final long maxWaitMillis;
+
+        public PoolStats(String source, int maxActive, int active, int waiting,
+                         long acquired, long timeouts, long avgWaitMillis, long maxWaitMillis) {
+            this.source = source;
+            this.maxActive = maxActive;
+            this.active = active;
+            this.waiting = waiting;
+            this.acquired = acquired;
+            this.timeouts = timeouts;
+            this.avgWaitMillis = avgWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+        }
+        public String getSource() { return source; }
+        public int getMaxActive() { return maxActive; }
+        public int getActive() { return active; }
+        public int getWaiting() { return waiting; }
+        public long getAcquired() { return acquired; }
+        public long getTimeouts() { return timeouts; }
+        public long getAvgWaitMillis() { return avgWaitMillis; }
+        public long getMaxWaitMillis() { return maxWaitMillis; }
+        public double getSaturation() { return maxActive == 0 ? 0 : (double) active / maxActive; }
+
+        @Override
+        public String toString() {
+            return "PoolStats{source='" + source + "', active=" + active + "/" + maxActive +
+                    ", waiting=" + waiting + ", acquired=" + acquired + ", timeouts=" + timeouts +
+                    ", avgWaitMillis=" + avgWaitMillis + ", maxWaitMillis=" + maxWaitMillis + '}';
         }
-        return con;
     }
 }
\ No newline at end of file
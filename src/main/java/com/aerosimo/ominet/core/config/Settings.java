@@ -0,0 +1,71 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      Settings.java                                                   *
+ * Created:   17/10/2026, 20:36                                               *
+ * Modified:  17/10/2026, 20:36                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.core.config;
+
+/**
+ * Utility class to read runtime settings.
+ * A key such as "personahub.db.maxActive" is looked up as a JVM system property first,
+ * then as the environment variable "PERSONAHUB_DB_MAXACTIVE", then the default is used.
+ */
+public class Settings {
+
+    public static String get(String key, String def) {
+        String value = System.getProperty(key);
+        if (value == null || value.isBlank()) {
+            value = System.getenv(key.toUpperCase().replace('.', '_'));
+        }
+        return (value == null || value.isBlank()) ? def : value.trim();
+    }
+
+    public static int getInt(String key, int def) {
+        String value = get(key, null);
+        try {
+            return value == null ? def : Integer.parseInt(value);
+        } catch (NumberFormatException err) {
+            return def;
+        }
+    }
+
+    public static long getLong(String key, long def) {
+        String value = get(key, null);
+        try {
+            return value == null ? def : Long.parseLong(value);
+        } catch (NumberFormatException err) {
+            return def;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean def) {
+        String value = get(key, null);
+        return value == null ? def : Boolean.parseBoolean(value);
+    }
+}
@@ -0,0 +1,94 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      DispatchExecutorProvider.java                                   *
+ * Created:   17/10/2026, 21:10                                               *
+ * Modified:  17/10/2026, 21:10                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.core.exec;
+
+import com.aerosimo.ominet.core.config.Settings;
+import com.aerosimo.ominet.core.metrics.Telemetry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.ws.rs.ext.Provider;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.glassfish.jersey.server.ManagedAsyncExecutor;
+import org.glassfish.jersey.spi.ExecutorServiceProvider;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Jersey's managed async executor, which runs every resource method once {@link DispatchModelProcessor}
+ * has marked them. Task run and queue times are exported as personahub.dispatch.* tagged with the mode.
+ */
+@Provider
+@ManagedAsyncExecutor
+public class DispatchExecutorProvider implements ExecutorServiceProvider {
+
+    private static final Logger log = LogManager.getLogger(DispatchExecutorProvider.class);
+    private static final int POOL_SIZE = Settings.getInt("personahub.threads.poolSize", 200);
+
+    @Override
+    public ExecutorService getExecutorService() {
+        ThreadMode mode = ThreadMode.current();
+        ExecutorService executor;
+        if (mode == ThreadMode.VIRTUAL) {
+            executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("personahub-vt-", 0).factory());
+            log.info("Resource methods dispatched to virtual threads");
+        } else {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), platformThreads());
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+            log.info("Resource methods dispatched to a pool of {} platform threads", POOL_SIZE);
+        }
+        return ExecutorServiceMetrics.monitor(Telemetry.registry(), executor, "personahub.dispatch",
+                Tags.of("mode", mode.getKey()));
+    }
+
+    @Override
+    public void dispose(ExecutorService executorService) {
+        executorService.shutdown();
+    }
+
+    private static ThreadFactory platformThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, "personahub-pt-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,78 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      DispatchModelProcessor.java                                     *
+ * Created:   17/10/2026, 21:10                                               *
+ * Modified:  17/10/2026, 21:10                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.core.exec;
+
+import jakarta.ws.rs.core.Configuration;
+import jakarta.ws.rs.ext.Provider;
+import org.glassfish.jersey.server.model.ModelProcessor;
+import org.glassfish.jersey.server.model.Resource;
+import org.glassfish.jersey.server.model.ResourceMethod;
+import org.glassfish.jersey.server.model.ResourceModel;
+
+/**
+ * Marks every resource method as managed async when {@link ThreadMode#current()} dispatches, so the
+ * blocking JDBC work runs on {@link DispatchExecutorProvider}'s executor instead of the container thread.
+ * Request filters (bulkheads, authentication) still run on the container thread before the hand-off.
+ */
+@Provider
+public class DispatchModelProcessor implements ModelProcessor {
+
+    @Override
+    public ResourceModel processResourceModel(ResourceModel model, Configuration config) {
+        return dispatch(model);
+    }
+
+    @Override
+    public ResourceModel processSubResource(ResourceModel model, Configuration config) {
+        return dispatch(model);
+    }
+
+    private static ResourceModel dispatch(ResourceModel model) {
+        if (!ThreadMode.current().isDispatched()) return model;
+        ResourceModel.Builder builder = new ResourceModel.Builder(false);
+        for (Resource resource : model.getRootResources()) {
+            builder.addResource(dispatch(resource));
+        }
+        return builder.build();
+    }
+
+    private static Resource dispatch(Resource resource) {
+        Resource.Builder builder = Resource.builder(resource);
+        for (ResourceMethod method : resource.getResourceMethods()) {
+            builder.updateMethod(method).managedAsync();
+        }
+        for (Resource child : resource.getChildResources()) {
+            builder.replaceChildResource(child, dispatch(child));
+        }
+        return builder.build();
+    }
+}
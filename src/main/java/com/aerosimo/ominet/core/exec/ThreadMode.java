@@ -0,0 +1,75 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      ThreadMode.java                                                 *
+ * Created:   17/10/2026, 21:10                                               *
+ * Modified:  17/10/2026, 21:10                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.core.exec;
+
+import com.aerosimo.ominet.core.config.Settings;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Locale;
+
+/**
+ * Where resource methods run, chosen with personahub.threads:
+ * container (the servlet worker thread, default), platform (a fixed pool of
+ * personahub.threads.poolSize threads) or virtual (one virtual thread per request).
+ * The platform pool exists so throughput can be compared like for like against virtual threads.
+ */
+public enum ThreadMode {
+
+    CONTAINER,
+    PLATFORM,
+    VIRTUAL;
+
+    private static final Logger log = LogManager.getLogger(ThreadMode.class);
+    private static final ThreadMode CURRENT = parse(Settings.get("personahub.threads", "container"));
+
+    public static ThreadMode current() {
+        return CURRENT;
+    }
+
+    public boolean isDispatched() {
+        return this != CONTAINER;
+    }
+
+    public String getKey() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    private static ThreadMode parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException err) {
+            log.warn("Unknown personahub.threads value '{}', keeping resource methods on container threads", value);
+            return CONTAINER;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      CompressionInterceptor.java                                     *
+ * Created:   17/10/2026, 21:08                                               *
+ * Modified:  17/10/2026, 21:08                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.core.http;
+
+import com.aerosimo.ominet.core.config.Settings;
+import com.aerosimo.ominet.core.metrics.Telemetry;
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Negotiates gzip or deflate from Accept-Encoding for textual responses (JSON, NDJSON, text/*).
+ * Up to personahub.compression.minBytes of the body is held back; a body that ends within that
+ * is sent as-is, anything longer is compressed as it is written. Images and other binary types
+ * are never touched, nor is text/event-stream, whose events must not wait in a buffer.
+ */
+@Provider
+@Priority(Priorities.ENTITY_CODER)
+public class CompressionInterceptor implements ContainerResponseFilter, WriterInterceptor {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    private static final boolean ENABLED = Settings.getBoolean("personahub.compression.enabled", true);
+    private static final int MIN_BYTES = Math.max(1, Settings.getInt("personahub.compression.minBytes", 1024));
+    private static final int LEVEL = Settings.getInt("personahub.compression.level", Deflater.DEFAULT_COMPRESSION);
+    private static final String ENCODING = CompressionInterceptor.class.getName() + ".encoding";
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        if (!ENABLED) return;
+        boolean notModified = response.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode();
+        if (!notModified && !compressible(response.getMediaType())) return;
+        response.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!response.hasEntity() || response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) return;
+        String encoding = negotiate(request.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+        if (encoding != null) request.setProperty(ENCODING, encoding);
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        if (!(context.getProperty(ENCODING) instanceof String encoding)) {
+            context.proceed();
+            return;
+        }
+        ThresholdOutputStream out = new ThresholdOutputStream(context, encoding);
+        context.setOutputStream(out);
+        try {
+            context.proceed();
+            out.finish();
+        } finally {
+            out.release();
+        }
+    }
+
+    /**
+     * The preferred encoding the client accepts, or null for identity. gzip wins ties with deflate.
+     */
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) return null;
+        float gzip = -1, deflate = -1, any = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] fields = part.split(";");
+            String coding = fields[0].trim().toLowerCase(Locale.ROOT);
+            float q = 1;
+            for (int i = 1; i < fields.length; i++) {
+                String param = fields[i].trim();
+                if (param.startsWith("q=") || param.startsWith("Q=")) {
+                    try {
+                        q = Float.parseFloat(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            switch (coding) {
+                case GZIP, "x-gzip" -> gzip = Math.max(gzip, q);
+                case DEFLATE -> deflate = Math.max(deflate, q);
+                case "*" -> any = q;
+                default -> { }
+            }
+        }
+        if (gzip < 0) gzip = any;
+        if (deflate < 0) deflate = any;
+        if (gzip <= 0 && deflate <= 0) return null;
+        return gzip >= deflate ? GZIP : DEFLATE;
+    }
+
+    static boolean compressible(MediaType type) {
+        if (type == null || type.isWildcardType() || type.isWildcardSubtype()) return false;
+        String main = type.getType().toLowerCase(Locale.ROOT);
+        String sub = type.getSubtype().toLowerCase(Locale.ROOT);
+        if (main.equals("text")) return !sub.equals("event-stream");
+        if (!main.equals("application")) return false;
+        return sub.equals("json") || sub.endsWith("+json") || sub.equals("x-ndjson")
+                || sub.equals("xml") || sub.endsWith("+xml") || sub.equals("javascript");
+    }
+
+    /**
+     * Holds back the first MIN_BYTES of the body. Once the body outgrows that the encoding headers
+     * are set (nothing has been committed yet) and everything, buffered or new, goes through the
+     * encoder. Flushes below the threshold are swallowed since the writers flush after every value;
+     * past it they reach the encoder without a sync flush, so per-row flushes cost no ratio.
+     */
+    private static final class ThresholdOutputStream extends OutputStream {
+
+        private final WriterInterceptorContext context;
+        private final String encoding;
+        private final OutputStream raw;
+        private byte[] buffer = new byte[MIN_BYTES];
+        private int count;
+        private DeflaterOutputStream encoder;
+        private Deflater deflater;
+        private boolean finished;
+
+        ThresholdOutputStream(WriterInterceptorContext context, String encoding) {
+            this.context = context;
+            this.encoding = encoding;
+            this.raw = context.getOutputStream();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (encoder != null) {
+                encoder.write(b);
+            } else if (count < buffer.length) {
+                buffer[count++] = (byte) b;
+            } else {
+                startEncoding().write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (encoder != null) {
+                encoder.write(b, off, len);
+            } else if (len <= buffer.length - count) {
+                System.arraycopy(b, off, buffer, count, len);
+                count += len;
+            } else {
+                startEncoding().write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (encoder != null) encoder.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+            raw.close();
+        }
+
+        void finish() throws IOException {
+            if (finished) return;
+            finished = true;
+            if (encoder != null) {
+                encoder.finish();
+            } else {
+                raw.write(buffer, 0, count);
+            }
+            raw.flush();
+            buffer = null;
+        }
+
+        /** Frees the native zlib state; the encoder is never closed since that would close the response. */
+        void release() {
+            if (deflater != null) deflater.end();
+        }
+
+        private OutputStream startEncoding() throws IOException {
+            context.getHeaders().putSingle(HttpHeaders.CONTENT_ENCODING, encoding);
+            context.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+            deflater = new Deflater(LEVEL, GZIP.equals(encoding));
+            encoder = GZIP.equals(encoding)
+                    ? new LeveledGzip(raw, deflater)
+                    : new DeflaterOutputStream(raw, deflater, 8192, false);
+            encoder.write(buffer, 0, count);
+            buffer = null;
+            count = 0;
+            Telemetry.count("personahub.http.compressed", "encoding", encoding);
+            return encoder;
+        }
+    }
+
+    /** GZIPOutputStream with a caller-supplied (nowrap) deflater so the level is configurable. */
+    private static final class LeveledGzip extends GZIPOutputStream {
+        LeveledGzip(OutputStream out, Deflater deflater) throws IOException {
+            super(out, 8192, false);
+            def.end();
+            def = deflater;
+        }
+    }
+}
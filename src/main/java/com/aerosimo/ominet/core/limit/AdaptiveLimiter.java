@@ -0,0 +1,172 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      AdaptiveLimiter.java                                            *
+ * Created:   17/10/2026, 21:05                                               *
+ * Modified:  17/10/2026, 22:20                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.core.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit with a bounded wait queue whose size adapts by AIMD: every call that
+ * completes within the target latency grows the limit by 1/limit (about +1 per full window),
+ * a call that is slower or fails shrinks it by the backoff ratio, at most once per round trip
+ * so the calls already in flight when the limit was cut do not cut it again. Waiting uses a
+ * lock and condition, so virtual threads unmount while queued.
+ */
+public class AdaptiveLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final long targetNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private volatile double limit;
+    /* guarded by lock; starts a day back so the first slow call can cut the limit */
+    private long lastDecrease = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+    private volatile int inFlight;
+    private volatile int waiting;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public AdaptiveLimiter(String name, int initialLimit, int maxLimit, int maxQueue, long targetLatencyMs) {
+        this.name = name;
+        this.minLimit = 1;
+        this.maxLimit = Math.max(initialLimit, maxLimit);
+        this.maxQueue = Math.max(0, maxQueue);
+        this.targetNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMs);
+        this.limit = Math.max(minLimit, initialLimit);
+    }
+
+    /**
+     * Takes a slot, queueing for at most the given time when the limit is reached.
+     *
+     * @return false when the queue is full, the wait timed out or the thread was interrupted
+     */
+    public boolean acquire(long timeoutMs) {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                admitted.increment();
+                return true;
+            }
+            if (waiting >= maxQueue) {
+                rejected.increment();
+                return false;
+            }
+            waiting++;
+            try {
+                long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+                while (inFlight >= (int) limit) {
+                    if (nanos <= 0) {
+                        rejected.increment();
+                        return false;
+                    }
+                    nanos = released.awaitNanos(nanos);
+                }
+                inFlight++;
+                admitted.increment();
+                return true;
+            } catch (InterruptedException err) {
+                Thread.currentThread().interrupt();
+                rejected.increment();
+                return false;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a slot and feeds the call's outcome into the limit.
+     *
+     * @param latencyNanos time spent in the resource method, or a negative value when it never
+     *                     ran (e.g. authentication failed) and the call says nothing about load
+     * @param failed       the call ended in a server error
+     */
+    public void release(long latencyNanos, boolean failed) {
+        lock.lock();
+        try {
+            inFlight--;
+            int before = (int) limit;
+            if (latencyNanos >= 0 || failed) {
+                long now = System.nanoTime();
+                if (failed || latencyNanos > targetNanos) {
+                    if (now - lastDecrease >= Math.max(targetNanos, latencyNanos)) {
+                        limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                        lastDecrease = now;
+                    }
+                } else {
+                    limit = Math.min(maxLimit, limit + 1.0 / limit);
+                }
+            }
+            // the freed slot wakes one waiter; slots added by a growing limit wake the rest
+            if ((int) limit > before) released.signalAll();
+            else released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public int getWaiting() {
+        return waiting;
+    }
+
+    public long getAdmitted() {
+        return admitted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,89 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      Bulkhead.java                                                   *
+ * Created:   17/10/2026, 21:05                                               *
+ * Modified:  17/10/2026, 21:40                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.core.limit;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Puts a resource method (or every method of a resource class) into a concurrency group.
+ * Groups are limited independently, so a flood in one cannot starve the others.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Bulkhead {
+
+    Group value();
+
+    /**
+     * Defaults per group: initial limit, queue depth and the latency above which the limit backs off.
+     * Each can be overridden with personahub.bulkhead.&lt;key&gt;.limit, .maxLimit, .queue and .targetLatencyMs.
+     */
+    enum Group {
+        AVATAR_WRITE("avatarWrite", 8, 16, 2000),
+        AVATAR_READ("avatarRead", 32, 64, 500),
+        PROFILE_READ("profileRead", 64, 128, 250),
+        PROFILE_WRITE("profileWrite", 16, 32, 500),
+        EXPORT("export", 2, 2, 60000),
+        IMPORT("import", 2, 2, 60000);
+
+        private final String key;
+        private final int limit;
+        private final int queue;
+        private final long targetLatencyMs;
+
+        Group(String key, int limit, int queue, long targetLatencyMs) {
+            this.key = key;
+            this.limit = limit;
+            this.queue = queue;
+            this.targetLatencyMs = targetLatencyMs;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public int getQueue() {
+            return queue;
+        }
+
+        public long getTargetLatencyMs() {
+            return targetLatencyMs;
+        }
+    }
+}
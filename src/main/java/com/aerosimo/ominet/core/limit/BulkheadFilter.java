@@ -0,0 +1,138 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      BulkheadFilter.java                                             *
+ * Created:   17/10/2026, 21:05                                               *
+ * Modified:  17/10/2026, 21:57                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.core.limit;
+
+import com.aerosimo.ominet.dao.impl.APIResponseDTO;
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admits requests into their {@link Bulkhead} group before authentication and sheds them with
+ * 503 and Retry-After when the group and its queue are full. The slot is returned when Jersey
+ * reports the request FINISHED, i.e. after the body has been written, so streamed avatars hold
+ * their slot for as long as they hold a database connection. The limiter is only fed the time
+ * spent in the resource method, not token validation or the client reading the response.
+ */
+@Provider
+@Priority(Priorities.AUTHENTICATION - 50)
+public class BulkheadFilter implements ContainerRequestFilter, ApplicationEventListener {
+
+    private static final Logger log = LogManager.getLogger(BulkheadFilter.class.getName());
+    private static final String PERMIT = BulkheadFilter.class.getName() + ".permit";
+    private static final Map<Method, Optional<Bulkhead.Group>> groups = new ConcurrentHashMap<>();
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext ctx) {
+        if (!Bulkheads.isEnabled() || resourceInfo == null || resourceInfo.getResourceMethod() == null) return;
+        Optional<Bulkhead.Group> group = groups.computeIfAbsent(resourceInfo.getResourceMethod(), BulkheadFilter::group);
+        if (group.isEmpty()) return;
+        AdaptiveLimiter limiter = Bulkheads.get(group.get());
+        if (!limiter.acquire(Bulkheads.QUEUE_TIMEOUT_MS)) {
+            log.warn("Shedding {} {}: {} bulkhead saturated at {} in flight",
+                    ctx.getMethod(), ctx.getUriInfo().getPath(), limiter.getName(), limiter.getInFlight());
+            ctx.abortWith(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, Bulkheads.RETRY_AFTER_SECONDS)
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity(new APIResponseDTO("unavailable", "server busy, retry later"))
+                    .build());
+            return;
+        }
+        ctx.setProperty(PERMIT, new Permit(limiter));
+    }
+
+    @Override
+    public void onEvent(ApplicationEvent event) {
+    }
+
+    @Override
+    public RequestEventListener onRequest(RequestEvent requestEvent) {
+        return event -> {
+            if (!(event.getContainerRequest().getProperty(PERMIT) instanceof Permit permit)) return;
+            switch (event.getType()) {
+                case RESOURCE_METHOD_START -> permit.methodStart = System.nanoTime();
+                case RESOURCE_METHOD_FINISHED -> permit.methodNanos = System.nanoTime() - permit.methodStart;
+                case FINISHED -> {
+                    int status = event.getContainerResponse() == null ? 500 : event.getContainerResponse().getStatus();
+                    permit.release(status >= 500 || !event.isSuccess());
+                }
+                default -> {
+                }
+            }
+        };
+    }
+
+    private static Optional<Bulkhead.Group> group(Method method) {
+        Bulkhead bulkhead = method.getAnnotation(Bulkhead.class);
+        if (bulkhead == null) bulkhead = method.getDeclaringClass().getAnnotation(Bulkhead.class);
+        return Optional.ofNullable(bulkhead).map(Bulkhead::value);
+    }
+
+    private static final class Permit {
+        private final AdaptiveLimiter limiter;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile long methodStart;
+        private volatile long methodNanos = -1;
+
+        private Permit(AdaptiveLimiter limiter) {
+            this.limiter = limiter;
+        }
+
+        private void release(boolean failed) {
+            if (released.compareAndSet(false, true)) {
+                limiter.release(methodNanos, failed);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      Bulkheads.java                                                  *
+ * Created:   17/10/2026, 21:05                                               *
+ * Modified:  17/10/2026, 21:05                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.core.limit;
+
+import com.aerosimo.ominet.core.config.Settings;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One {@link AdaptiveLimiter} per {@link Bulkhead.Group}, sized from personahub.bulkhead.* settings.
+ */
+public class Bulkheads {
+
+    public static final long QUEUE_TIMEOUT_MS = Settings.getLong("personahub.bulkhead.queueTimeoutMs", 500);
+    public static final int RETRY_AFTER_SECONDS = Settings.getInt("personahub.bulkhead.retryAfterSeconds", 2);
+
+    private static final boolean ENABLED = Settings.getBoolean("personahub.bulkhead.enabled", true);
+    private static final Map<Bulkhead.Group, AdaptiveLimiter> limiters = new EnumMap<>(Bulkhead.Group.class);
+
+    static {
+        for (Bulkhead.Group group : Bulkhead.Group.values()) {
+            String prefix = "personahub.bulkhead." + group.getKey() + ".";
+            int limit = Settings.getInt(prefix + "limit", group.getLimit());
+            limiters.put(group, new AdaptiveLimiter(group.getKey(), limit,
+                    Settings.getInt(prefix + "maxLimit", limit * 4),
+                    Settings.getInt(prefix + "queue", group.getQueue()),
+                    Settings.getLong(prefix + "targetLatencyMs", group.getTargetLatencyMs())));
+        }
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static AdaptiveLimiter get(Bulkhead.Group group) {
+        return limiters.get(group);
+    }
+}
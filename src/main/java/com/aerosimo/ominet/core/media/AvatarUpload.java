@@ -0,0 +1,204 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      AvatarUpload.java                                               *
+ * Created:   17/10/2026, 20:39                                               *
+ * Modified:  17/10/2026, 22:01                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.core.media;
+
+import com.aerosimo.ominet.core.config.Settings;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Base64;
+
+/**
+ * An avatar on its way to the database.
+ * The image is decoded and size-checked while it is being read, so neither a multipart
+ * stream nor a Base64 payload is ever buffered in full before it reaches setBlob.
+ */
+public class AvatarUpload {
+
+    public static final long MAX_BYTES = Settings.getLong("personahub.avatar.maxBytes", 2L * 1024 * 1024);
+
+    private final ImageFormat format;
+    private final LimitedInputStream stream;
+    private final long length;
+
+    private AvatarUpload(ImageFormat format, LimitedInputStream stream, long length) {
+        this.format = format;
+        this.stream = stream;
+        this.length = length;
+    }
+
+    /**
+     * Wraps a Base64 payload, with or without a "data:image/...;base64," prefix.
+     *
+     * @throws IllegalArgumentException if the payload is not Base64 or not a supported image
+     * @throws AvatarTooLargeException  if the decoded size exceeds {@link #MAX_BYTES}
+     */
+    public static AvatarUpload fromBase64(String value) throws IOException {
+        int start = value.indexOf(',') + 1;
+        int end = value.length();
+        int padding = 0;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c == '=') {
+                padding++;
+            } else if (padding > 0 || !isBase64(c)) {
+                throw new IllegalArgumentException("invalid base64 character at offset " + i);
+            }
+        }
+        int chars = end - start;
+        long length = chars % 4 == 0 ? (long) chars / 4 * 3 - padding : -1;
+        long estimate = length >= 0 ? length : (long) chars * 3 / 4;
+        if (estimate > MAX_BYTES) throw new AvatarTooLargeException(MAX_BYTES);
+        InputStream decoded = Base64.getDecoder().wrap(new CharsInputStream(value, start, end));
+        return open(decoded, length);
+    }
+
+    /**
+     * Wraps a raw image stream such as a multipart file part.
+     *
+     * @throws IllegalArgumentException if the stream is not a supported image
+     */
+    public static AvatarUpload fromStream(InputStream in) throws IOException {
+        return open(in, -1);
+    }
+
+    private static AvatarUpload open(InputStream in, long length) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(in, ImageFormat.HEADER_LENGTH);
+        byte[] header = new byte[ImageFormat.HEADER_LENGTH];
+        int read = pushback.readNBytes(header, 0, header.length);
+        ImageFormat format = ImageFormat.sniff(header, read);
+        if (format == ImageFormat.UNKNOWN) {
+            throw new IllegalArgumentException("unsupported image format");
+        }
+        pushback.unread(header, 0, read);
+        return new AvatarUpload(format, new LimitedInputStream(pushback, MAX_BYTES), length);
+    }
+
+    public ImageFormat getFormat() {
+        return format;
+    }
+
+    /** The bounded image stream; reading past {@link #MAX_BYTES} throws {@link AvatarTooLargeException}. */
+    public InputStream getStream() {
+        return stream;
+    }
+
+    /** Decoded length when it is known up front, otherwise -1. */
+    public long getLength() {
+        return length;
+    }
+
+    public boolean isOversized() {
+        return stream.exceeded;
+    }
+
+    private static boolean isBase64(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '+' || c == '/';
+    }
+
+    public static class AvatarTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public AvatarTooLargeException(long limit) {
+            super("image exceeds maximum size of " + limit + " bytes");
+        }
+    }
+
+    private static class LimitedInputStream extends InputStream {
+        private final InputStream in;
+        private final long limit;
+        private long count;
+        private volatile boolean exceeded;
+
+        LimitedInputStream(InputStream in, long limit) {
+            this.in = in;
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) check(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = in.read(buf, off, len);
+            if (n > 0) check(n);
+            return n;
+        }
+
+        private void check(int n) throws AvatarTooLargeException {
+            count += n;
+            if (count > limit) {
+                exceeded = true;
+                throw new AvatarTooLargeException(limit);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /** Reads the ASCII characters of a String region as bytes without copying it. */
+    private static class CharsInputStream extends InputStream {
+        private final String value;
+        private final int end;
+        private int pos;
+
+        CharsInputStream(String value, int start, int end) {
+            this.value = value;
+            this.pos = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() {
+            return pos < end ? value.charAt(pos++) : -1;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) {
+            if (len == 0) return 0;
+            if (pos >= end) return -1;
+            int n = Math.min(len, end - pos);
+            for (int i = 0; i < n; i++) {
+                buf[off + i] = (byte) value.charAt(pos++);
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      RequestTimingFilter.java                                        *
+ * Created:   17/10/2026, 20:56                                               *
+ * Modified:  17/10/2026, 20:56                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.core.metrics;
+
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+/**
+ * Times every resource method end to end, from before authentication until the entity has been
+ * written, into personahub.http.requests. Entity writing is also timed on its own as
+ * personahub.http.serialization so slow responses can be split between handler and serializer.
+ */
+@Provider
+@Priority(Priorities.AUTHENTICATION - 100)
+public class RequestTimingFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+    private static final String START = RequestTimingFilter.class.getName() + ".start";
+    private static final String TAGS = RequestTimingFilter.class.getName() + ".tags";
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        request.setProperty(START, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        Object start = request.getProperty(START);
+        if (!(start instanceof Long)) return;
+        String[] tags = {"endpoint", endpoint(), "method", request.getMethod(),
+                "status", Integer.toString(response.getStatus())};
+        if (response.hasEntity()) {
+            request.setProperty(TAGS, tags);
+        } else {
+            Telemetry.record("personahub.http.requests", System.nanoTime() - (Long) start, tags);
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        Object start = context.getProperty(START);
+        Object tags = context.getProperty(TAGS);
+        long writeStart = System.nanoTime();
+        try {
+            context.proceed();
+        } finally {
+            if (start instanceof Long && tags instanceof String[] t) {
+                long end = System.nanoTime();
+                Telemetry.record("personahub.http.serialization", end - writeStart, t[0], t[1]);
+                Telemetry.record("personahub.http.requests", end - (Long) start, t);
+            }
+        }
+    }
+
+    private String endpoint() {
+        Method method = resourceInfo == null ? null : resourceInfo.getResourceMethod();
+        return method == null ? "unmatched" : method.getDeclaringClass().getSimpleName() + "." + method.getName();
+    }
+}
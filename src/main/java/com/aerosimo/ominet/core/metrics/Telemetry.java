@@ -0,0 +1,181 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      Telemetry.java                                                  *
+ * Created:   17/10/2026, 20:56                                               *
+ * Modified:  17/10/2026, 21:23                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.core.metrics;
+
+import com.aerosimo.ominet.core.config.Connect;
+import com.aerosimo.ominet.core.limit.AdaptiveLimiter;
+import com.aerosimo.ominet.core.limit.Bulkhead;
+import com.aerosimo.ominet.core.limit.Bulkheads;
+import com.aerosimo.ominet.core.model.Spectre;
+import com.aerosimo.ominet.dao.mapper.AvatarVariants;
+import com.aerosimo.ominet.dao.mapper.ProfileCache;
+import com.aerosimo.ominet.dao.mapper.ProfileChanges;
+import com.aerosimo.ominet.security.AuthCore;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.core.instrument.binder.system.UptimeMetrics;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Process-wide Micrometer registry, scraped in Prometheus text format by {@link MetricsServlet}.
+ * Every personahub.* timer publishes a latency histogram so percentiles can be aggregated across
+ * instances; pool, cache and Spectre figures are read from their owners' existing counters on scrape.
+ */
+public class Telemetry {
+
+    private static final PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+
+    static {
+        registry.config()
+                .commonTags("application", "personahub")
+                .meterFilter(new MeterFilter() {
+                    @Override
+                    public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                        if (id.getType() != Meter.Type.TIMER || !id.getName().startsWith("personahub.")) {
+                            return config;
+                        }
+                        return DistributionStatisticConfig.builder()
+                                .percentilesHistogram(true)
+                                .minimumExpectedValue((double) Duration.ofMillis(1).toNanos())
+                                .maximumExpectedValue((double) Duration.ofSeconds(30).toNanos())
+                                .build()
+                                .merge(config);
+                    }
+                });
+        new JvmMemoryMetrics().bindTo(registry);
+        new JvmThreadMetrics().bindTo(registry);
+        new ProcessorMetrics().bindTo(registry);
+        new UptimeMetrics().bindTo(registry);
+
+        Gauge.builder("personahub.db.pool.active", () -> Connect.stats().getActive())
+                .description("Connections currently checked out").register(registry);
+        Gauge.builder("personahub.db.pool.waiting", () -> Connect.stats().getWaiting())
+                .description("Callers waiting for a connection permit").register(registry);
+        Gauge.builder("personahub.db.pool.max", () -> Connect.stats().getMaxActive())
+                .register(registry);
+
+        FunctionCounter.builder("personahub.spectre.reports", registry, r -> Spectre.getSent())
+                .tag("outcome", "sent").register(registry);
+        FunctionCounter.builder("personahub.spectre.reports", registry, r -> Spectre.getFailed())
+                .tag("outcome", "failed").register(registry);
+        FunctionCounter.builder("personahub.spectre.reports", registry, r -> Spectre.getDropped())
+                .tag("outcome", "dropped").register(registry);
+        FunctionCounter.builder("personahub.spectre.reports", registry, r -> Spectre.getSpilled())
+                .tag("outcome", "spilled").register(registry);
+        Gauge.builder("personahub.spectre.queued", Spectre::getQueued).register(registry);
+        Gauge.builder("personahub.spectre.circuit.open", () -> Spectre.isCircuitOpen() ? 1 : 0).register(registry);
+
+        for (Bulkhead.Group group : Bulkhead.Group.values()) {
+            bulkhead(group.getKey(), () -> Bulkheads.get(group));
+        }
+
+        Gauge.builder("personahub.changes.subscribers", ProfileChanges::getSubscribers).register(registry);
+        FunctionCounter.builder("personahub.changes.overflows", registry, r -> ProfileChanges.getOverflows())
+                .register(registry);
+
+        cache("auth-token", AuthCore::stats);
+        cache("profile", ProfileCache::stats);
+        cache("avatar-variant", AvatarVariants::stats);
+        Gauge.builder("cache.size", ProfileCache::size).tag("cache", "profile").register(registry);
+    }
+
+    public static MeterRegistry registry() {
+        return registry;
+    }
+
+    /** Current state of every meter in the Prometheus text exposition format. */
+    public static String scrape() {
+        return registry.scrape();
+    }
+
+    /**
+     * Records one timing into the named timer, creating it on first use.
+     *
+     * @param tags alternating tag keys and values
+     */
+    public static void record(String name, long nanos, String... tags) {
+        registry.timer(name, tags).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Increments the named counter, creating it on first use.
+     *
+     * @param tags alternating tag keys and values
+     */
+    public static void count(String name, String... tags) {
+        registry.counter(name, tags).increment();
+    }
+
+    private static void bulkhead(String name, Supplier<AdaptiveLimiter> limiter) {
+        Gauge.builder("personahub.bulkhead.limit", limiter, l -> l.get().getLimit())
+                .tag("group", name).register(registry);
+        Gauge.builder("personahub.bulkhead.inflight", limiter, l -> l.get().getInFlight())
+                .tag("group", name).register(registry);
+        Gauge.builder("personahub.bulkhead.queued", limiter, l -> l.get().getWaiting())
+                .tag("group", name).register(registry);
+        FunctionCounter.builder("personahub.bulkhead.rejected", limiter, l -> l.get().getRejected())
+                .tag("group", name).register(registry);
+    }
+
+    private static void cache(String name, Supplier<CacheStats> stats) {
+        counter("cache.gets", name, stats, s -> s.hitCount(), "result", "hit");
+        counter("cache.gets", name, stats, s -> s.missCount(), "result", "miss");
+        counter("cache.evictions", name, stats, s -> s.evictionCount(), null, null);
+        counter("cache.loads", name, stats, s -> s.loadSuccessCount(), "result", "success");
+        counter("cache.loads", name, stats, s -> s.loadFailureCount(), "result", "failure");
+        Gauge.builder("cache.hit.ratio", stats, s -> s.get().hitRate())
+                .tag("cache", name).register(registry);
+    }
+
+    private static void counter(String meter, String name, Supplier<CacheStats> stats,
+                                ToDoubleFunction<CacheStats> value, String tagKey, String tagValue) {
+        FunctionCounter.Builder<Supplier<CacheStats>> builder = FunctionCounter
+                .builder(meter, stats, s -> value.applyAsDouble(s.get()))
+                .tag("cache", name);
+        if (tagKey != null) builder.tag(tagKey, tagValue);
+        builder.register(registry);
+    }
+}
@@ -4,7 +4,7 @@
  * Author:    eomisore                                                        *
  * File:      Spectre.java                                                    *
  * Created:   15/11/2025, 23:33                                               *
- * Modified:  15/11/2025, 23:33                                               *
+ * Modified:  17/10/2026, 22:15                                               *
  *                                                                            *
  * Copyright (c)  2025.  Aerosimo Ltd                                         *
  *                                                                            *
@@ -31,59 +31,303 @@
 
 package com.aerosimo.ominet.core.model;
 
+import com.aerosimo.ominet.core.config.Settings;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Client for the Spectre error service.
+ * recordError never blocks the caller: faults are queued and a background sender drains the
+ * queue in batches, coalescing repeats of the same fault code. After repeated failures a
+ * circuit breaker stops calling Spectre for an increasing backoff period and faults are
+ * spilled to a local file, which is replayed once the service answers again.
+ * The sender starts with the first fault (or {@link #start()}) and is stopped by
+ * {@link SpectreListener} when the application is undeployed.
+ */
 public class Spectre {
 
     private static final Logger log = LogManager.getLogger(Spectre.class);
-    private static final String BASE_URL = "https://ominet.aerosimo.com:9443/spectre/api/errors";
+    private static final String BASE_URL = Settings.get("personahub.spectre.url", "https://ominet.aerosimo.com:9443/spectre/api/errors");
     private static final ObjectMapper mapper = new ObjectMapper();
 
+    private static final int BATCH_SIZE = 100;
+    private static final int FAILURE_THRESHOLD = Settings.getInt("personahub.spectre.failureThreshold", 3);
+    private static final long MIN_BACKOFF_MS = 1_000;
+    private static final long MAX_BACKOFF_MS = Settings.getLong("personahub.spectre.maxBackoffMs", 300_000);
+    private static final Path SPILL_FILE = Paths.get(Settings.get("personahub.spectre.spillFile",
+            Paths.get(System.getProperty("java.io.tmpdir"), "personahub-spectre.ndjson").toString()));
+    private static final long SPILL_MAX_BYTES = Settings.getLong("personahub.spectre.spillMaxBytes", 10L * 1024 * 1024);
+
+    private static final BlockingQueue<Fault> queue =
+            new ArrayBlockingQueue<>(Settings.getInt("personahub.spectre.queueSize", 1000));
+
+    private static final LongAdder sent = new LongAdder();
+    private static final LongAdder failed = new LongAdder();
+    private static final LongAdder dropped = new LongAdder();
+    private static final LongAdder spilled = new LongAdder();
+
+    private static final int TIMEOUT_MS = 4_000;
+    /* an in-flight send can take a connect and a read timeout; interrupts do not cut it short */
+    private static final long SHUTDOWN_WAIT_MS = 2L * TIMEOUT_MS + 1_000;
+
+    private static int consecutiveFailures;
+    private static long backoffMs = MIN_BACKOFF_MS;
+    private static volatile long openUntil;
+
+    private static Thread sender;
+    private static volatile boolean started;
+    private static volatile boolean stopped;
+
+    /** Starts the background sender unless it is running or the application has shut down. */
+    public static void start() {
+        if (started) return;
+        synchronized (Spectre.class) {
+            if (started) return;
+            if (!stopped) {
+                sender = new Thread(Spectre::drain, "spectre-reporter");
+                sender.setDaemon(true);
+                sender.start();
+            }
+            started = true;
+        }
+    }
+
+    /**
+     * Stops the sender and waits for it to finish its in-flight call, which spills the rest of its
+     * batch, then spills whatever is still queued so it is replayed by the next deployment.
+     */
+    public static void shutdown() {
+        Thread thread;
+        synchronized (Spectre.class) {
+            stopped = true;
+            started = true;
+            thread = sender;
+            sender = null;
+        }
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(SHUTDOWN_WAIT_MS);
+            } catch (InterruptedException err) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) log.warn("Spectre sender still running after {} ms", SHUTDOWN_WAIT_MS);
+        }
+        List<Fault> left = new ArrayList<>();
+        queue.drainTo(left);
+        if (!left.isEmpty()) spill(coalesce(left));
+    }
+
+    /**
+     * Queues a fault for delivery to Spectre and returns immediately.
+     * When the queue is full the fault is dropped and counted rather than blocking the caller.
+     */
     public static SpectreResponse recordError(String faultCode, String faultMessage, String faultService) throws Exception {
+        Fault fault = new Fault(String.valueOf(faultCode), String.valueOf(faultMessage), String.valueOf(faultService), 1);
+        start();
+        if (queue.offer(fault)) {
+            return new SpectreResponse("queued", "fault " + faultCode + " queued for Spectre");
+        }
+        dropped.increment();
+        log.warn("Spectre queue full, dropping fault {} from {}", faultCode, faultService);
+        return new SpectreResponse("dropped", "fault " + faultCode + " dropped, Spectre queue is full");
+    }
+
+    public static long getSent() { return sent.sum(); }
+    public static long getFailed() { return failed.sum(); }
+    public static long getDropped() { return dropped.sum(); }
+    public static long getSpilled() { return spilled.sum(); }
+    public static int getQueued() { return queue.size(); }
+    public static boolean isCircuitOpen() { return System.currentTimeMillis() < openUntil; }
+
+    private static void drain() {
+        List<Fault> batch = new ArrayList<>(BATCH_SIZE);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Fault first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    if (!isCircuitOpen() && Files.exists(SPILL_FILE)) replaySpill();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                deliver(coalesce(batch));
+            } catch (InterruptedException err) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException err) {
+                log.error("Spectre reporter failed to process a batch", err);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private static List<Fault> coalesce(List<Fault> batch) {
+        Map<String, Fault> unique = new LinkedHashMap<>();
+        for (Fault fault : batch) {
+            unique.merge(fault.faultCode + '|' + fault.faultService, fault,
+                    (a, b) -> new Fault(a.faultCode, a.faultMessage, a.faultService, a.count + b.count));
+        }
+        return new ArrayList<>(unique.values());
+    }
+
+    private static void deliver(List<Fault> faults) {
+        for (int i = 0; i < faults.size(); i++) {
+            if (stopped || isCircuitOpen()) {
+                spill(faults.subList(i, faults.size()));
+                return;
+            }
+            Fault fault = faults.get(i);
+            try {
+                SpectreResponse response = send(fault);
+                log.debug("Spectre stowed fault {}: {}", fault.faultCode, response);
+                sent.increment();
+                consecutiveFailures = 0;
+                backoffMs = MIN_BACKOFF_MS;
+            } catch (Exception err) {
+                failed.increment();
+                log.warn("Spectre call for fault {} failed: {}", fault.faultCode, err.getMessage());
+                if (++consecutiveFailures >= FAILURE_THRESHOLD) {
+                    openUntil = System.currentTimeMillis() + backoffMs;
+                    log.warn("Spectre circuit open for {} ms after {} failures", backoffMs, consecutiveFailures);
+                    backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+                }
+                spill(List.of(fault));
+            }
+        }
+    }
+
+    private static void spill(List<Fault> faults) {
+        try {
+            if (Files.exists(SPILL_FILE) && Files.size(SPILL_FILE) >= SPILL_MAX_BYTES) {
+                dropped.add(faults.size());
+                return;
+            }
+            StringBuilder lines = new StringBuilder();
+            for (Fault fault : faults) {
+                lines.append(mapper.writeValueAsString(fault.toSpill())).append('\n');
+            }
+            Files.writeString(SPILL_FILE, lines, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            spilled.add(faults.size());
+        } catch (IOException err) {
+            dropped.add(faults.size());
+            log.error("Unable to spill {} Spectre faults to {}", faults.size(), SPILL_FILE, err);
+        }
+    }
+
+    private static void replaySpill() {
+        Path replay = SPILL_FILE.resolveSibling(SPILL_FILE.getFileName() + ".replay");
+        List<Fault> faults = new ArrayList<>();
+        try {
+            Files.move(SPILL_FILE, replay, StandardCopyOption.REPLACE_EXISTING);
+            for (String line : Files.readAllLines(replay, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) continue;
+                Map<String, Object> map = mapper.readValue(line, new TypeReference<>() {});
+                int count = map.get("count") instanceof Number n ? n.intValue() : 1;
+                faults.add(new Fault(String.valueOf(map.get("faultCode")), String.valueOf(map.get("faultMessage")),
+                        String.valueOf(map.get("faultService")), count));
+            }
+            Files.delete(replay);
+        } catch (IOException err) {
+            log.error("Unable to replay spilled Spectre faults from {}", replay, err);
+            return;
+        }
+        List<Fault> unique = coalesce(faults);
+        log.info("Replaying {} spilled Spectre faults as {} calls", faults.size(), unique.size());
+        deliver(unique);
+    }
+
+    private static SpectreResponse send(Fault fault) throws Exception {
         String endpoint = BASE_URL + "/stow";
-        String payload = mapper.writeValueAsString(Map.of(
-                "faultCode", faultCode,
-                "faultMessage", faultMessage,
-                "faultService", faultService));
-        log.info("Calling Spectre endpoint {} to stow the error", endpoint);
+        String payload = mapper.writeValueAsString(fault.toMap());
+        log.debug("Calling Spectre endpoint {} to stow the error", endpoint);
         HttpURLConnection conn = (HttpURLConnection) new URL(endpoint).openConnection();
         conn.setRequestMethod("POST");
         conn.setRequestProperty("Content-Type", "application/json");
         conn.setDoOutput(true);
-        conn.setConnectTimeout(4000);
-        conn.setReadTimeout(4000);
+        conn.setConnectTimeout(TIMEOUT_MS);
+        conn.setReadTimeout(TIMEOUT_MS);
         try (OutputStream os = conn.getOutputStream()) {
             os.write(payload.getBytes(StandardCharsets.UTF_8));
         }
         int status = conn.getResponseCode();
-        log.info("Spectre endpoint {} returned with status {}", endpoint, status);
-        BufferedReader br = new BufferedReader(new InputStreamReader(
+        log.debug("Spectre endpoint {} returned with status {}", endpoint, status);
+        if (status >= 500) {
+            conn.disconnect();
+            throw new IOException("Spectre returned HTTP " + status);
+        }
+        StringBuilder sb = new StringBuilder();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
                 (status >= 200 && status < 300) ? conn.getInputStream() : conn.getErrorStream(),
                 StandardCharsets.UTF_8
-        ));
-        StringBuilder sb = new StringBuilder();
-        String line;
-        while ((line = br.readLine()) != null) {
-            sb.append(line);
+        ))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                sb.append(line);
+            }
         }
-        conn.disconnect();
         Map<String, Object> responseMap = mapper.readValue(sb.toString(), new TypeReference<>() {});
         String respStatus = responseMap.getOrDefault("status", "unknown").toString();
         String respMessage = responseMap.getOrDefault("message", "no message").toString();
 
         return new SpectreResponse(respStatus, respMessage);
     }
+
+    private static class Fault {
+        private final String faultCode;
+        private final String faultMessage;
+        private final String faultService;
+        private final int count;
+
+        Fault(String faultCode, String faultMessage, String faultService, int count) {
+            this.faultCode = faultCode;
+            this.faultMessage = faultMessage;
+            this.faultService = faultService;
+            this.count = count;
+        }
+
+        /* spill lines keep the raw message and the count, so a replay can coalesce them again */
+        Map<String, Object> toSpill() {
+            return Map.of(
+                    "faultCode", faultCode,
+                    "faultMessage", faultMessage,
+                    "faultService", faultService,
+                    "count", count);
+        }
+
+        Map<String, String> toMap() {
+            return Map.of(
+                    "faultCode", faultCode,
+                    "faultMessage", count > 1 ? faultMessage + " (repeated " + count + " times)" : faultMessage,
+                    "faultService", faultService);
+        }
+    }
+
     public static class SpectreResponse {
         private String status;
         private String message;
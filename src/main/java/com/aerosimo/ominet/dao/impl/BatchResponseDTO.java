@@ -0,0 +1,65 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      BatchResponseDTO.java                                           *
+ * Created:   17/10/2026, 20:44                                               *
+ * Modified:  17/10/2026, 20:44                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.dao.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchResponseDTO extends APIResponseDTO {
+
+    private List<BatchItemDTO> results = new ArrayList<>();
+
+    public BatchResponseDTO() {
+    }
+
+    public BatchResponseDTO(String status, String message, List<BatchItemDTO> results) {
+        super(status, message);
+        this.results = results;
+    }
+
+    public List<BatchItemDTO> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchItemDTO> results) {
+        this.results = results;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResponseDTO{" +
+                "status='" + getStatus() + '\'' +
+                ", message='" + getMessage() + '\'' +
+                ", results=" + results.size() +
+                '}';
+    }
+}
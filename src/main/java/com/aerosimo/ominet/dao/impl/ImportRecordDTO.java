@@ -0,0 +1,88 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      ImportRecordDTO.java                                            *
+ * Created:   17/10/2026, 21:34                                               *
+ * Modified:  17/10/2026, 21:40                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.dao.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportRecordDTO {
+
+    private String username;
+    private PersonRequestDTO person;
+    private AddressRequestDTO address;
+    private List<ContactRequestDTO> contacts = new ArrayList<>();
+
+    public ImportRecordDTO() {
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public PersonRequestDTO getPerson() {
+        return person;
+    }
+
+    public void setPerson(PersonRequestDTO person) {
+        this.person = person;
+    }
+
+    public AddressRequestDTO getAddress() {
+        return address;
+    }
+
+    public void setAddress(AddressRequestDTO address) {
+        this.address = address;
+    }
+
+    public List<ContactRequestDTO> getContacts() {
+        return contacts;
+    }
+
+    public void setContacts(List<ContactRequestDTO> contacts) {
+        this.contacts = contacts;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportRecordDTO{" +
+                "username='" + username + '\'' +
+                ", person=" + person +
+                ", address=" + address +
+                ", contacts=" + contacts +
+                '}';
+    }
+}
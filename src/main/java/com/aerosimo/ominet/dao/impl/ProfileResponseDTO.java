@@ -0,0 +1,112 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      ProfileResponseDTO.java                                         *
+ * Created:   17/10/2026, 20:41                                               *
+ * Modified:  17/10/2026, 20:41                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.dao.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProfileResponseDTO {
+
+    private String username;
+    private PersonResponseDTO person;
+    private AddressResponseDTO address;
+    private List<ContactResponseDTO> contacts = new ArrayList<>();
+    private ImageResponseDTO avatar;
+    private List<String> unavailable = new ArrayList<>();
+
+    public ProfileResponseDTO() {
+    }
+
+    public ProfileResponseDTO(String username) {
+        this.username = username;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public PersonResponseDTO getPerson() {
+        return person;
+    }
+
+    public void setPerson(PersonResponseDTO person) {
+        this.person = person;
+    }
+
+    public AddressResponseDTO getAddress() {
+        return address;
+    }
+
+    public void setAddress(AddressResponseDTO address) {
+        this.address = address;
+    }
+
+    public List<ContactResponseDTO> getContacts() {
+        return contacts;
+    }
+
+    public void setContacts(List<ContactResponseDTO> contacts) {
+        this.contacts = contacts;
+    }
+
+    public ImageResponseDTO getAvatar() {
+        return avatar;
+    }
+
+    public void setAvatar(ImageResponseDTO avatar) {
+        this.avatar = avatar;
+    }
+
+    public List<String> getUnavailable() {
+        return unavailable;
+    }
+
+    public void setUnavailable(List<String> unavailable) {
+        this.unavailable = unavailable;
+    }
+
+    @Override
+    public String toString() {
+        return "ProfileResponseDTO{" +
+                "username='" + username + '\'' +
+                ", person=" + person +
+                ", address=" + address +
+                ", contacts=" + contacts +
+                ", avatar=" + avatar +
+                ", unavailable=" + unavailable +
+                '}';
+    }
+}
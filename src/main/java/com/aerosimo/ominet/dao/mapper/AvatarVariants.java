@@ -0,0 +1,118 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      AvatarVariants.java                                             *
+ * Created:   17/10/2026, 20:40                                               *
+ * Modified:  17/10/2026, 22:14                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.dao.mapper;
+
+import com.aerosimo.ominet.core.config.Settings;
+import com.aerosimo.ominet.core.media.ImageFormat;
+import com.aerosimo.ominet.core.media.Thumbnails;
+import com.aerosimo.ominet.dao.impl.ImageMetaDTO;
+import com.aerosimo.ominet.dao.impl.ImageResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size variants of avatars, rendered on first request and kept in a byte-weighted LRU cache.
+ * Keys include the avatar's modifiedDate, so a new upload never serves an old thumbnail; entries for
+ * replaced or removed avatars are never looked up again and simply age out.
+ */
+public class AvatarVariants {
+
+    private static final Logger log = LogManager.getLogger(AvatarVariants.class.getName());
+
+    private static final int[] SIZES = Arrays.stream(Settings.get("personahub.avatar.sizes", "32,64,128").split(","))
+            .map(String::trim).mapToInt(Integer::parseInt).filter(size -> size > 0).sorted().toArray();
+
+    private record Key(String username, int size, String modifiedDate) {}
+
+    private static final Cache<Key, byte[]> cache = Caffeine.newBuilder()
+            .maximumWeight(Settings.getLong("personahub.avatar.variantCacheBytes", 32L * 1024 * 1024))
+            .weigher((Key key, byte[] png) -> png.length + 64)
+            .expireAfterAccess(Settings.getLong("personahub.avatar.variantIdleSeconds", 3600), TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+
+    /**
+     * Maps a requested size onto the smallest configured size that is at least as large,
+     * so clients asking for odd sizes still share cache entries.
+     */
+    public static int snap(int requested) {
+        for (int size : SIZES) {
+            if (size >= requested) return size;
+        }
+        return SIZES[SIZES.length - 1];
+    }
+
+    /**
+     * @return the PNG thumbnail, or null when the avatar has gone since the metadata was read
+     */
+    public static byte[] get(ImageMetaDTO meta, int size) throws IOException {
+        Key key = new Key(meta.getUsername(), snap(size), meta.getModifiedDate());
+        try {
+            return cache.get(key, k -> {
+                try {
+                    log.debug("Rendering {}px avatar for {}", k.size(), k.username());
+                    return ProfileRepository.instance().readImage(k.username(), in -> Thumbnails.render(in, k.size()));
+                } catch (IOException err) {
+                    throw new UncheckedIOException(err);
+                }
+            });
+        } catch (UncheckedIOException err) {
+            throw err.getCause();
+        }
+    }
+
+    /**
+     * Builds the JSON avatar response for a size variant.
+     *
+     * @return the response, or null when the avatar has gone since the metadata was read
+     */
+    public static ImageResponseDTO variant(ImageMetaDTO meta, int size) throws IOException {
+        byte[] png = get(meta, size);
+        if (png == null) return null;
+        return new ImageResponseDTO(meta.getUsername(),
+                "data:" + ImageFormat.PNG.getContentType() + ";base64," + Base64.getEncoder().encodeToString(png),
+                meta.getModifiedBy(), meta.getModifiedDate());
+    }
+
+    public static CacheStats stats() {
+        return cache.stats();
+    }
+}
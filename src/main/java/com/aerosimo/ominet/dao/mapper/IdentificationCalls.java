@@ -0,0 +1,221 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      IdentificationCalls.java                                        *
+ * Created:   17/10/2026, 21:03                                               *
+ * Modified:  17/10/2026, 22:16                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.dao.mapper;
+
+/**
+ * Every identification_pkg call the DAO prepares, kept as constants so each call is always
+ * prepared with byte-identical SQL text. The driver's implicit statement cache (see Connect)
+ * is keyed on that text, so a repeated call reuses the cached cursor instead of a fresh parse.
+ */
+public final class IdentificationCalls {
+
+    public static final String SAVE_ADDRESS = "{call identification_pkg.saveAddress(?,?,?,?,?,?,?,?)}";
+    public static final String SAVE_IMAGE = "{call identification_pkg.saveImage(?,?,?)}";
+    public static final String SAVE_PERSON = "{call identification_pkg.savePerson(?,?,?,?,?,?,?,?)}";
+    public static final String GET_ADDRESS = "{call identification_pkg.getAddress(?,?)}";
+    public static final String GET_CONTACT = "{call identification_pkg.getContact(?,?)}";
+    public static final String GET_IMAGE = "{call identification_pkg.getImage(?,?)}";
+    public static final String GET_PERSON = "{call identification_pkg.getPerson(?,?)}";
+    public static final String REMOVE_ADDRESS = "{call identification_pkg.removeAddress(?,?)}";
+    public static final String REMOVE_CONTACT = "{call identification_pkg.removeContact(?,?,?)}";
+    public static final String REMOVE_IMAGE = "{call identification_pkg.removeImage(?,?)}";
+    public static final String REMOVE_PERSON = "{call identification_pkg.removePerson(?,?)}";
+    public static final String METRICS = "{call identification_pkg.metrics(?,?)}";
+
+    /*
+     * one cursor over every profile changed at or after the timestamp (NULL for all), one row per
+     * contact in username order, plus the database time it was opened at; the column contract is
+     * in src/main/sql/identification_export_pkg.sql, the body is implemented by the schema owner
+     */
+    public static final String EXPORT_PROFILES = "{call identification_export_pkg.exportProfiles(?,?,?)}";
+
+    /*
+     * batch reads: runs a single-user cursor procedure for every username of the bound list inside
+     * one block and hands the rows back cell by cell as owner (1-based username index), row number,
+     * upper-case column name and value, so a chunk of usernames costs one round trip. DATE columns
+     * are returned as YYYY-MM-DD HH24:MI:SS, the form getString gives on a single-user read.
+     */
+    private static final String EACH = """
+            DECLARE
+              l_username SYS.ODCIVARCHAR2LIST := ?;
+              l_owner    SYS.ODCINUMBERLIST := SYS.ODCINUMBERLIST();
+              l_row      SYS.ODCINUMBERLIST := SYS.ODCINUMBERLIST();
+              l_column   SYS.ODCIVARCHAR2LIST := SYS.ODCIVARCHAR2LIST();
+              l_value    SYS.ODCIVARCHAR2LIST := SYS.ODCIVARCHAR2LIST();
+              l_cursor   SYS_REFCURSOR;
+              l_handle   INTEGER;
+              l_count    INTEGER;
+              l_desc     DBMS_SQL.DESC_TAB2;
+              l_text     VARCHAR2(4000);
+              l_date     DATE;
+              l_rows     PLS_INTEGER := 0;
+            BEGIN
+              FOR i IN 1 .. l_username.COUNT LOOP
+                identification_pkg.%s(l_username(i), l_cursor);
+                l_handle := DBMS_SQL.TO_CURSOR_NUMBER(l_cursor);
+                DBMS_SQL.DESCRIBE_COLUMNS2(l_handle, l_count, l_desc);
+                FOR c IN 1 .. l_count LOOP
+                  IF l_desc(c).col_type = 12 THEN
+                    DBMS_SQL.DEFINE_COLUMN(l_handle, c, l_date);
+                  ELSE
+                    DBMS_SQL.DEFINE_COLUMN(l_handle, c, l_text, 4000);
+                  END IF;
+                END LOOP;
+                WHILE DBMS_SQL.FETCH_ROWS(l_handle) > 0 LOOP
+                  l_rows := l_rows + 1;
+                  FOR c IN 1 .. l_count LOOP
+                    IF l_desc(c).col_type = 12 THEN
+                      DBMS_SQL.COLUMN_VALUE(l_handle, c, l_date);
+                      l_text := TO_CHAR(l_date, 'YYYY-MM-DD HH24:MI:SS');
+                    ELSE
+                      DBMS_SQL.COLUMN_VALUE(l_handle, c, l_text);
+                    END IF;
+                    l_owner.EXTEND;
+                    l_owner(l_owner.COUNT) := i;
+                    l_row.EXTEND;
+                    l_row(l_row.COUNT) := l_rows;
+                    l_column.EXTEND;
+                    l_column(l_column.COUNT) := UPPER(l_desc(c).col_name);
+                    l_value.EXTEND;
+                    l_value(l_value.COUNT) := l_text;
+                  END LOOP;
+                END LOOP;
+                DBMS_SQL.CLOSE_CURSOR(l_handle);
+              END LOOP;
+              ? := l_owner;
+              ? := l_row;
+              ? := l_column;
+              ? := l_value;
+            END;""";
+
+    public static final String EACH_PERSON = EACH.formatted("getPerson");
+    public static final String EACH_ADDRESS = EACH.formatted("getAddress");
+    public static final String EACH_CONTACT = EACH.formatted("getContact");
+
+    /* saves a whole chunk of contacts in one round trip, see PersonaDAO.saveContacts */
+    public static final String SAVE_CONTACTS = """
+            DECLARE
+              l_username SYS.ODCIVARCHAR2LIST := ?;
+              l_channel  SYS.ODCIVARCHAR2LIST := ?;
+              l_address  SYS.ODCIVARCHAR2LIST := ?;
+              l_consent  SYS.ODCIVARCHAR2LIST := ?;
+              l_result   SYS.ODCIVARCHAR2LIST := SYS.ODCIVARCHAR2LIST();
+            BEGIN
+              l_result.EXTEND(l_username.COUNT);
+              FOR i IN 1 .. l_username.COUNT LOOP
+                identification_pkg.saveContact(l_username(i), l_channel(i), l_address(i), l_consent(i), l_result(i));
+              END LOOP;
+              ? := l_result;
+            END;""";
+
+    /*
+     * bulk import blocks: like SAVE_CONTACTS, but every element is saved on its own so one failure
+     * is reported in its result slot instead of failing or rolling back the rest of the chunk; the
+     * savepoint undoes whatever the failed call wrote before it raised
+     */
+    public static final String IMPORT_PERSONS = """
+            DECLARE
+              l_username   SYS.ODCIVARCHAR2LIST := ?;
+              l_title      SYS.ODCIVARCHAR2LIST := ?;
+              l_firstName  SYS.ODCIVARCHAR2LIST := ?;
+              l_middleName SYS.ODCIVARCHAR2LIST := ?;
+              l_lastName   SYS.ODCIVARCHAR2LIST := ?;
+              l_gender     SYS.ODCIVARCHAR2LIST := ?;
+              l_birthday   SYS.ODCIVARCHAR2LIST := ?;
+              l_result     SYS.ODCIVARCHAR2LIST := SYS.ODCIVARCHAR2LIST();
+            BEGIN
+              l_result.EXTEND(l_username.COUNT);
+              FOR i IN 1 .. l_username.COUNT LOOP
+                BEGIN
+                  SAVEPOINT s;
+                  identification_pkg.savePerson(l_username(i), l_title(i), l_firstName(i), l_middleName(i),
+                      l_lastName(i), l_gender(i), TO_DATE(l_birthday(i), 'YYYY-MM-DD'), l_result(i));
+                EXCEPTION
+                  WHEN OTHERS THEN
+                    l_result(i) := SUBSTR(SQLERRM, 1, 400);
+                    ROLLBACK TO s;
+                END;
+              END LOOP;
+              ? := l_result;
+            END;""";
+
+    public static final String IMPORT_ADDRESSES = """
+            DECLARE
+              l_username   SYS.ODCIVARCHAR2LIST := ?;
+              l_firstline  SYS.ODCIVARCHAR2LIST := ?;
+              l_secondline SYS.ODCIVARCHAR2LIST := ?;
+              l_thirdline  SYS.ODCIVARCHAR2LIST := ?;
+              l_city       SYS.ODCIVARCHAR2LIST := ?;
+              l_postcode   SYS.ODCIVARCHAR2LIST := ?;
+              l_country    SYS.ODCIVARCHAR2LIST := ?;
+              l_result     SYS.ODCIVARCHAR2LIST := SYS.ODCIVARCHAR2LIST();
+            BEGIN
+              l_result.EXTEND(l_username.COUNT);
+              FOR i IN 1 .. l_username.COUNT LOOP
+                BEGIN
+                  SAVEPOINT s;
+                  identification_pkg.saveAddress(l_username(i), l_firstline(i), l_secondline(i), l_thirdline(i),
+                      l_city(i), l_postcode(i), l_country(i), l_result(i));
+                EXCEPTION
+                  WHEN OTHERS THEN
+                    l_result(i) := SUBSTR(SQLERRM, 1, 400);
+                    ROLLBACK TO s;
+                END;
+              END LOOP;
+              ? := l_result;
+            END;""";
+
+    public static final String IMPORT_CONTACTS = """
+            DECLARE
+              l_username SYS.ODCIVARCHAR2LIST := ?;
+              l_channel  SYS.ODCIVARCHAR2LIST := ?;
+              l_address  SYS.ODCIVARCHAR2LIST := ?;
+              l_consent  SYS.ODCIVARCHAR2LIST := ?;
+              l_result   SYS.ODCIVARCHAR2LIST := SYS.ODCIVARCHAR2LIST();
+            BEGIN
+              l_result.EXTEND(l_username.COUNT);
+              FOR i IN 1 .. l_username.COUNT LOOP
+                BEGIN
+                  SAVEPOINT s;
+                  identification_pkg.saveContact(l_username(i), l_channel(i), l_address(i), l_consent(i), l_result(i));
+                EXCEPTION
+                  WHEN OTHERS THEN
+                    l_result(i) := SUBSTR(SQLERRM, 1, 400);
+                    ROLLBACK TO s;
+                END;
+              END LOOP;
+              ? := l_result;
+            END;""";
+
+    private IdentificationCalls() {
+    }
+}
@@ -0,0 +1,483 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      InMemoryProfileRepository.java                                  *
+ * Created:   17/10/2026, 21:00                                               *
+ * Modified:  17/10/2026, 22:19                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.dao.mapper;
+
+import com.aerosimo.ominet.core.config.Settings;
+import com.aerosimo.ominet.core.media.AvatarUpload;
+import com.aerosimo.ominet.core.media.ImageFormat;
+import com.aerosimo.ominet.dao.impl.*;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Heap-only backend for local runs, load tests and CI without an Oracle instance.
+ * Each username owns one entry guarded by one of a fixed set of striped read/write locks, so
+ * writers to different users rarely contend and readers never block each other. Rows are held
+ * as immutable records with epoch-millisecond timestamps and DTOs are built on every read, so
+ * callers can never change stored state. Results mirror the identification_pkg status strings.
+ */
+public class InMemoryProfileRepository implements ProfileRepository {
+
+    private static final Logger log = LogManager.getLogger(InMemoryProfileRepository.class.getName());
+
+    private static final String MODIFIED_BY = "personahub";
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int[] ZODIAC_START = {120, 219, 321, 420, 521, 621, 723, 823, 923, 1023, 1122, 1222};
+    private static final String[] ZODIAC = {"Aquarius", "Pisces", "Aries", "Taurus", "Gemini", "Cancer",
+            "Leo", "Virgo", "Libra", "Scorpio", "Sagittarius", "Capricorn"};
+
+    private record Person(String title, String firstName, String middleName, String lastName,
+                          String gender, LocalDate birthday, long modified) {}
+
+    private record Address(String firstline, String secondline, String thirdline, String city,
+                           String postcode, String country, long modified) {}
+
+    private record Contact(String channel, String address, String consent, long modified) {}
+
+    private record Avatar(byte[] bytes, ImageFormat format, long modified) {}
+
+    /* fields are only touched while holding the username's stripe lock */
+    private static final class Entry {
+        private Person person;
+        private Address address;
+        private final Map<String, Contact> contacts = new LinkedHashMap<>();
+        private Avatar avatar;
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ReadWriteLock[] stripes;
+
+    public InMemoryProfileRepository() {
+        int requested = Math.max(1, Settings.getInt("personahub.memory.lockStripes", 64));
+        int count = Integer.highestOneBit(requested) == requested ? requested : Integer.highestOneBit(requested) << 1;
+        stripes = new ReadWriteLock[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+        log.info("In-memory profile repository ready with {} lock stripes", count);
+    }
+
+    /* -------------------- Writes -------------------- */
+    @Override
+    public APIResponseDTO saveAddress(String username, String firstline, String secondline,
+                                      String thirdline, String city, String postcode, String country) {
+        if (username == null) return new APIResponseDTO("unsuccessful", "address detail not saved");
+        write(username, entry -> entry.address = new Address(firstline, secondline, thirdline, city, postcode,
+                country, System.currentTimeMillis()));
+        ProfileChanges.saved(ProfileCache.Entity.ADDRESS, username);
+        return new APIResponseDTO("success", "address detail saved successfully");
+    }
+
+    /**
+     * All-or-nothing like the Oracle batch: every stripe involved is locked in index order,
+     * the list is validated, and only then applied.
+     */
+    @Override
+    public BatchResponseDTO saveContacts(List<ContactRequestDTO> contacts) {
+        List<BatchItemDTO> results = new ArrayList<>();
+        int failed = 0;
+        for (int i = 0; i < contacts.size(); i++) {
+            ContactRequestDTO c = contacts.get(i);
+            boolean valid = c.getUsername() != null && c.getChannel() != null && c.getAddress() != null;
+            if (!valid) failed++;
+            results.add(new BatchItemDTO(i, c.getUsername(), c.getChannel(), valid ? "success" : "unsuccessful"));
+        }
+        if (failed > 0) {
+            results.stream().filter(r -> "success".equals(r.getStatus())).forEach(r -> r.setStatus("rolledback"));
+            return new BatchResponseDTO("unsuccessful", failed + " contact(s) not saved, no contacts were changed", results);
+        }
+        int[] locked = contacts.stream().mapToInt(c -> stripe(c.getUsername())).distinct().sorted().toArray();
+        for (int index : locked) stripes[index].writeLock().lock();
+        try {
+            long now = System.currentTimeMillis();
+            for (ContactRequestDTO c : contacts) {
+                entries.computeIfAbsent(c.getUsername(), u -> new Entry()).contacts
+                        .put(c.getChannel(), new Contact(c.getChannel(), c.getAddress(), c.getConsent(), now));
+            }
+        } finally {
+            for (int i = locked.length - 1; i >= 0; i--) stripes[locked[i]].writeLock().unlock();
+            contacts.stream().map(ContactRequestDTO::getUsername).distinct()
+                    .forEach(u -> ProfileCache.invalidate(ProfileCache.Entity.CONTACT, u));
+        }
+        ProfileChanges.saved(ProfileCache.Entity.CONTACT,
+                contacts.stream().map(ContactRequestDTO::getUsername).distinct().toList());
+        return new BatchResponseDTO("success", "All contacts saved successfully", results);
+    }
+
+    @Override
+    public List<String> importPersons(List<PersonRequestDTO> persons) {
+        List<String> statuses = new ArrayList<>(persons.size());
+        for (PersonRequestDTO p : persons) {
+            statuses.add(status(savePerson(p.getUsername(), p.getTitle(), p.getFirstName(), p.getMiddleName(),
+                    p.getLastName(), p.getGender(), p.getBirthday())));
+        }
+        return statuses;
+    }
+
+    @Override
+    public List<String> importAddresses(List<AddressRequestDTO> addresses) {
+        List<String> statuses = new ArrayList<>(addresses.size());
+        for (AddressRequestDTO a : addresses) {
+            statuses.add(status(saveAddress(a.getUsername(), a.getFirstline(), a.getSecondline(), a.getThirdline(),
+                    a.getCity(), a.getPostcode(), a.getCountry())));
+        }
+        return statuses;
+    }
+
+    /** Unlike saveContacts, each contact is applied on its own. */
+    @Override
+    public List<String> importContacts(List<ContactRequestDTO> contacts) {
+        List<String> statuses = new ArrayList<>(contacts.size());
+        for (ContactRequestDTO c : contacts) {
+            if (c.getUsername() == null || c.getChannel() == null || c.getAddress() == null) {
+                statuses.add("contact detail not saved");
+                continue;
+            }
+            Contact contact = new Contact(c.getChannel(), c.getAddress(), c.getConsent(), System.currentTimeMillis());
+            write(c.getUsername(), entry -> entry.contacts.put(contact.channel(), contact));
+            ProfileChanges.saved(ProfileCache.Entity.CONTACT, c.getUsername());
+            statuses.add("success");
+        }
+        return statuses;
+    }
+
+    @Override
+    public APIResponseDTO saveImage(String username, AvatarUpload upload) {
+        byte[] bytes;
+        try {
+            bytes = upload.getStream().readAllBytes();
+        } catch (AvatarUpload.AvatarTooLargeException err) {
+            return new APIResponseDTO("unsuccessful", "image exceeds maximum size of " + AvatarUpload.MAX_BYTES + " bytes");
+        } catch (IOException err) {
+            log.error("Unable to read avatar upload", err);
+            return new APIResponseDTO("error", "internal server error");
+        }
+        if (username == null) return new APIResponseDTO("unsuccessful", "image not saved");
+        Avatar avatar = new Avatar(bytes, upload.getFormat(), System.currentTimeMillis());
+        write(username, entry -> entry.avatar = avatar);
+        ProfileChanges.saved(ProfileCache.Entity.AVATAR, username);
+        return new APIResponseDTO("success", "image saved successfully");
+    }
+
+    @Override
+    public APIResponseDTO savePerson(String username, String title, String firstName,
+                                     String middleName, String lastName, String gender, String birthday) {
+        LocalDate born;
+        try {
+            born = LocalDate.parse(birthday);
+        } catch (DateTimeParseException | NullPointerException err) {
+            return new APIResponseDTO("unsuccessful", "person detail not saved successfully");
+        }
+        if (username == null) return new APIResponseDTO("unsuccessful", "person detail not saved successfully");
+        write(username, entry -> entry.person = new Person(title, firstName, middleName, lastName, gender, born,
+                System.currentTimeMillis()));
+        ProfileChanges.saved(ProfileCache.Entity.PERSON, username);
+        return new APIResponseDTO("success", "person detail saved successfully");
+    }
+
+    @Override
+    public APIResponseDTO removeAddress(String username) {
+        boolean removed = remove(username, entry -> {
+            boolean present = entry.address != null;
+            entry.address = null;
+            return present;
+        });
+        if (!removed) return new APIResponseDTO("unsuccessful", "address detail not removed successfully");
+        ProfileChanges.removed(ProfileCache.Entity.ADDRESS, username);
+        return new APIResponseDTO("success", "address detail removed successfully");
+    }
+
+    @Override
+    public APIResponseDTO removeContact(String username, String channel) {
+        boolean removed = remove(username, entry -> entry.contacts.remove(channel) != null);
+        if (!removed) return new APIResponseDTO("unsuccessful", "contact detail not removed successfully");
+        ProfileChanges.removed(ProfileCache.Entity.CONTACT, username);
+        return new APIResponseDTO("success", "contact detail removed successfully");
+    }
+
+    @Override
+    public APIResponseDTO removeImage(String username) {
+        boolean removed = remove(username, entry -> {
+            boolean present = entry.avatar != null;
+            entry.avatar = null;
+            return present;
+        });
+        if (!removed) return new APIResponseDTO("unsuccessful", "image not removed successfully");
+        ProfileChanges.removed(ProfileCache.Entity.AVATAR, username);
+        return new APIResponseDTO("success", "image removed successfully");
+    }
+
+    @Override
+    public APIResponseDTO removePerson(String username) {
+        boolean removed = remove(username, entry -> {
+            boolean present = entry.person != null;
+            entry.person = null;
+            return present;
+        });
+        if (!removed) return new APIResponseDTO("unsuccessful", "person detail not removed successfully");
+        ProfileChanges.removed(ProfileCache.Entity.PERSON, username);
+        return new APIResponseDTO("success", "person detail removed successfully");
+    }
+
+    /* -------------------- Reads -------------------- */
+    @Override
+    public PersonResponseDTO getPerson(String username) {
+        return read(username, entry -> {
+            Person p = entry.person;
+            if (p == null) return null;
+            return new PersonResponseDTO(username, p.title(), p.firstName(), p.middleName(), p.lastName(),
+                    zodiac(p.birthday()), p.gender(), p.birthday().toString(),
+                    Integer.toString(Period.between(p.birthday(), LocalDate.now()).getYears()),
+                    MODIFIED_BY, stamp(p.modified()));
+        });
+    }
+
+    @Override
+    public AddressResponseDTO getAddress(String username) {
+        return read(username, entry -> {
+            Address a = entry.address;
+            if (a == null) return null;
+            return new AddressResponseDTO(username, a.firstline(), a.secondline(), a.thirdline(), a.city(),
+                    a.postcode(), a.country(), MODIFIED_BY, stamp(a.modified()));
+        });
+    }
+
+    @Override
+    public List<ContactResponseDTO> getContact(String username) {
+        List<ContactResponseDTO> list = read(username, entry -> {
+            List<ContactResponseDTO> contacts = new ArrayList<>(entry.contacts.size());
+            for (Contact c : entry.contacts.values()) {
+                contacts.add(new ContactResponseDTO(username, c.channel(), c.address(), c.consent(),
+                        MODIFIED_BY, stamp(c.modified())));
+            }
+            return contacts;
+        });
+        return list == null ? new ArrayList<>() : list;
+    }
+
+    @Override
+    public ImageResponseDTO getImage(String username) {
+        Avatar a = avatar(username);
+        if (a == null) return null;
+        ImageFormat format = a.format() == ImageFormat.UNKNOWN ? ImageFormat.PNG : a.format();
+        return new ImageResponseDTO(username,
+                "data:" + format.getContentType() + ";base64," + Base64.getEncoder().encodeToString(a.bytes()),
+                MODIFIED_BY, stamp(a.modified()));
+    }
+
+    @Override
+    public ImageMetaDTO getImageMeta(String username) {
+        Avatar a = avatar(username);
+        if (a == null) return null;
+        return new ImageMetaDTO(username, a.format().getContentType(), a.bytes().length,
+                MODIFIED_BY, stamp(a.modified()), a.modified());
+    }
+
+    @Override
+    public Map<String, ImageMetaDTO> getImageMetas(Collection<String> usernames) {
+        return each(usernames, this::getImageMeta);
+    }
+
+    @Override
+    public <T> T readImage(String username, BlobReader<T> reader) throws IOException {
+        Avatar a = avatar(username);
+        return a == null ? null : reader.read(new ByteArrayInputStream(a.bytes()));
+    }
+
+    @Override
+    public boolean writeImage(ImageMetaDTO meta, OutputStream out) throws IOException {
+        Avatar a = avatar(meta.getUsername());
+        if (a == null || a.modified() != meta.getModifiedTime() || a.bytes().length != meta.getSize()) return false;
+        out.write(a.bytes());
+        return true;
+    }
+
+    @Override
+    public Map<String, PersonResponseDTO> getPersons(Collection<String> usernames) {
+        return each(usernames, this::getPerson);
+    }
+
+    @Override
+    public Map<String, AddressResponseDTO> getAddresses(Collection<String> usernames) {
+        return each(usernames, this::getAddress);
+    }
+
+    @Override
+    public Map<String, List<ContactResponseDTO>> getContacts(Collection<String> usernames) {
+        return each(usernames, username -> {
+            List<ContactResponseDTO> contacts = getContact(username);
+            return contacts.isEmpty() ? null : contacts;
+        });
+    }
+
+    /**
+     * Profile completion as the share of person, address, contacts and avatar that are present.
+     */
+    @Override
+    public APIResponseDTO getMetrics(String username) {
+        Integer filled = read(username, entry -> (entry.person != null ? 1 : 0) + (entry.address != null ? 1 : 0)
+                + (entry.contacts.isEmpty() ? 0 : 1) + (entry.avatar != null ? 1 : 0));
+        if (filled == null || filled == 0) return new APIResponseDTO("unsuccessful", "unsuccessful");
+        return new APIResponseDTO("success", (filled * 25) + "%");
+    }
+
+    /* -------------------- Export -------------------- */
+    @Override
+    public Export export(long since) {
+        long watermark = System.currentTimeMillis();
+        return new Export() {
+            @Override
+            public long watermark() {
+                return watermark;
+            }
+
+            @Override
+            public long stream(ExportSink sink) throws IOException {
+                long rows = 0;
+                for (String username : entries.keySet()) {
+                    boolean changed = Boolean.TRUE.equals(read(username, entry ->
+                            entry.person != null && entry.person.modified() >= since
+                                    || entry.address != null && entry.address.modified() >= since
+                                    || entry.contacts.values().stream().anyMatch(c -> c.modified() >= since)));
+                    if (!changed) continue;
+                    PersonResponseDTO person = getPerson(username);
+                    AddressResponseDTO address = getAddress(username);
+                    List<ContactResponseDTO> contacts = getContact(username);
+                    if (person == null && address == null && contacts.isEmpty()) continue;
+                    sink.accept(username, person, address, contacts.isEmpty() ? null : contacts);
+                    rows++;
+                }
+                return rows;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /* -------------------- Helpers -------------------- */
+    private int stripe(String username) {
+        int h = username.hashCode();
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+
+    private void write(String username, Consumer<Entry> change) {
+        Lock lock = stripes[stripe(username)].writeLock();
+        lock.lock();
+        try {
+            change.accept(entries.computeIfAbsent(username, u -> new Entry()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean remove(String username, Function<Entry, Boolean> change) {
+        if (username == null) return false;
+        Lock lock = stripes[stripe(username)].writeLock();
+        lock.lock();
+        try {
+            Entry entry = entries.get(username);
+            if (entry == null || !change.apply(entry)) return false;
+            if (entry.person == null && entry.address == null && entry.contacts.isEmpty() && entry.avatar == null) {
+                entries.remove(username);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> T read(String username, Function<Entry, T> view) {
+        if (username == null) return null;
+        Lock lock = stripes[stripe(username)].readLock();
+        lock.lock();
+        try {
+            Entry entry = entries.get(username);
+            return entry == null ? null : view.apply(entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Avatar avatar(String username) {
+        return read(username, entry -> entry.avatar);
+    }
+
+    private static <T> Map<String, T> each(Collection<String> usernames, Function<String, T> lookup) {
+        Map<String, T> result = new LinkedHashMap<>();
+        for (String username : usernames) {
+            T value = lookup.apply(username);
+            if (value != null) result.put(username, value);
+        }
+        return result;
+    }
+
+    private static String status(APIResponseDTO response) {
+        return "success".equals(response.getStatus()) ? "success" : response.getMessage();
+    }
+
+    private static String stamp(long millis) {
+        return STAMP.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()));
+    }
+
+    private static String zodiac(LocalDate date) {
+        int monthDay = date.getMonthValue() * 100 + date.getDayOfMonth();
+        for (int i = ZODIAC_START.length - 1; i >= 0; i--) {
+            if (monthDay >= ZODIAC_START[i]) return ZODIAC[i];
+        }
+        return ZODIAC[ZODIAC.length - 1];
+    }
+}
@@ -0,0 +1,169 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      OracleProfileRepository.java                                    *
+ * Created:   17/10/2026, 21:00                                               *
+ * Modified:  17/10/2026, 22:19                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.dao.mapper;
+
+import com.aerosimo.ominet.core.media.AvatarUpload;
+import com.aerosimo.ominet.dao.impl.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The production backend: every call runs the matching identification_pkg procedure through PersonaDAO.
+ */
+public class OracleProfileRepository implements ProfileRepository {
+
+    @Override
+    public APIResponseDTO saveAddress(String username, String firstline, String secondline,
+                                      String thirdline, String city, String postcode, String country) {
+        return PersonaDAO.saveAddress(username, firstline, secondline, thirdline, city, postcode, country);
+    }
+
+    @Override
+    public BatchResponseDTO saveContacts(List<ContactRequestDTO> contacts) {
+        return PersonaDAO.saveContacts(contacts);
+    }
+
+    @Override
+    public List<String> importPersons(List<PersonRequestDTO> persons) {
+        return PersonaDAO.importPersons(persons);
+    }
+
+    @Override
+    public List<String> importAddresses(List<AddressRequestDTO> addresses) {
+        return PersonaDAO.importAddresses(addresses);
+    }
+
+    @Override
+    public List<String> importContacts(List<ContactRequestDTO> contacts) {
+        return PersonaDAO.importContacts(contacts);
+    }
+
+    @Override
+    public APIResponseDTO saveImage(String username, AvatarUpload upload) {
+        return PersonaDAO.saveImage(username, upload);
+    }
+
+    @Override
+    public APIResponseDTO savePerson(String username, String title, String firstName,
+                                     String middleName, String lastName, String gender, String birthday) {
+        return PersonaDAO.savePerson(username, title, firstName, middleName, lastName, gender, birthday);
+    }
+
+    @Override
+    public AddressResponseDTO getAddress(String username) {
+        return PersonaDAO.getAddress(username);
+    }
+
+    @Override
+    public List<ContactResponseDTO> getContact(String username) {
+        return PersonaDAO.getContact(username);
+    }
+
+    @Override
+    public ImageResponseDTO getImage(String username) {
+        return PersonaDAO.getImage(username);
+    }
+
+    @Override
+    public ImageMetaDTO getImageMeta(String username) {
+        return PersonaDAO.getImageMeta(username);
+    }
+
+    @Override
+    public Map<String, ImageMetaDTO> getImageMetas(Collection<String> usernames) {
+        return PersonaDAO.getImageMetas(usernames);
+    }
+
+    @Override
+    public <T> T readImage(String username, BlobReader<T> reader) throws IOException {
+        return PersonaDAO.readImage(username, reader);
+    }
+
+    @Override
+    public boolean writeImage(ImageMetaDTO meta, OutputStream out) throws IOException {
+        return PersonaDAO.writeImage(meta, out);
+    }
+
+    @Override
+    public PersonResponseDTO getPerson(String username) {
+        return PersonaDAO.getPerson(username);
+    }
+
+    @Override
+    public Map<String, PersonResponseDTO> getPersons(Collection<String> usernames) {
+        return PersonaDAO.getPersons(usernames);
+    }
+
+    @Override
+    public Map<String, AddressResponseDTO> getAddresses(Collection<String> usernames) {
+        return PersonaDAO.getAddresses(usernames);
+    }
+
+    @Override
+    public Map<String, List<ContactResponseDTO>> getContacts(Collection<String> usernames) {
+        return PersonaDAO.getContacts(usernames);
+    }
+
+    @Override
+    public APIResponseDTO removeAddress(String username) {
+        return PersonaDAO.removeAddress(username);
+    }
+
+    @Override
+    public APIResponseDTO removeContact(String username, String channel) {
+        return PersonaDAO.removeContact(username, channel);
+    }
+
+    @Override
+    public APIResponseDTO removeImage(String username) {
+        return PersonaDAO.removeImage(username);
+    }
+
+    @Override
+    public APIResponseDTO removePerson(String username) {
+        return PersonaDAO.removePerson(username);
+    }
+
+    @Override
+    public APIResponseDTO getMetrics(String username) {
+        return PersonaDAO.getMetrics(username);
+    }
+
+    @Override
+    public Export export(long since) throws IOException {
+        return PersonaDAO.export(since);
+    }
+}
@@ -4,7 +4,7 @@
  * Author:    eomisore                                                        *
  * File:      PersonaDAO.java                                                 *
  * Created:   15/11/2025, 23:39                                               *
- * Modified:  15/11/2025, 23:39                                               *
+ * Modified:  17/10/2026, 22:19                                               *
  *                                                                            *
  * Copyright (c)  2025.  Aerosimo Ltd                                         *
  *                                                                            *
@@ -32,27 +32,48 @@
 package com.aerosimo.ominet.dao.mapper;
 
 import com.aerosimo.ominet.core.config.Connect;
+import com.aerosimo.ominet.core.config.Settings;
+import com.aerosimo.ominet.core.media.AvatarUpload;
+import com.aerosimo.ominet.core.media.ImageFormat;
 import com.aerosimo.ominet.core.model.Spectre;
 import com.aerosimo.ominet.dao.impl.*;
+import com.aerosimo.ominet.security.Redact;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OracleStatement;
 import oracle.jdbc.OracleTypes;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 
 public class PersonaDAO {
 
     private static final Logger log = LogManager.getLogger(PersonaDAO.class.getName());
 
+    private static final String STRING_LIST = "SYS.ODCIVARCHAR2LIST";
+    private static final String NUMBER_LIST = "SYS.ODCINUMBERLIST";
+    /* usernames per EACH_* call, small enough that the cells of every row fit one 32767 element list */
+    private static final int READ_CHUNK = 100;
+    private static final int ARRAY_CHUNK = 1000;
+    private static final int EXPORT_FETCH_SIZE = Settings.getInt("personahub.export.fetchSize", 1000);
+
     public static APIResponseDTO saveAddress(String username, String firstline, String secondline,
                                              String thirdline, String city, String postcode, String country) {
         log.info("Preparing to create or update user address");
         String response;
-        String sql = "{call identification_pkg.saveAddress(?,?,?,?,?,?,?,?)}";
+        String sql = IdentificationCalls.SAVE_ADDRESS;
         try (Connection con = Connect.dbase();
              CallableStatement stmt = con.prepareCall(sql)) {
             stmt.setString(1, username);
@@ -67,6 +88,7 @@ public class PersonaDAO {
             response = stmt.getString(8);
             if(response.equalsIgnoreCase("success")){
                 response = "success";
+                ProfileChanges.saved(ProfileCache.Entity.ADDRESS, username);
                 return new APIResponseDTO(response,"address detail saved successfully");
             } else {
                 response = "unsuccessful";
@@ -84,26 +106,64 @@ public class PersonaDAO {
         }
     }
 
-    public static APIResponseDTO saveContacts(List<ContactRequestDTO> contacts) {
-        log.info("Preparing to create or update multiple user contact details");
-        String sql = "{call identification_pkg.saveContact(?,?,?,?,?)}";
-        try (Connection con = Connect.dbase()) {
-            for (ContactRequestDTO c : contacts) {
-                try (CallableStatement stmt = con.prepareCall(sql)) {
-                    stmt.setString(1, c.getUsername());
-                    stmt.setString(2, c.getChannel());
-                    stmt.setString(3, c.getAddress());
-                    stmt.setString(4, c.getConsent());
-                    stmt.registerOutParameter(5, OracleTypes.VARCHAR);
+    /**
+     * Saves all contacts in one transaction. Each chunk of contacts is bound as Oracle string
+     * collections and saved by a single anonymous block that calls identification_pkg.saveContact
+     * for every element, so a chunk costs one round trip. Any unsuccessful contact rolls the whole
+     * list back.
+     */
+    public static BatchResponseDTO saveContacts(List<ContactRequestDTO> contacts) {
+        log.info("Preparing to create or update {} user contact details", contacts.size());
+        List<BatchItemDTO> results = new ArrayList<>();
+        for (int i = 0; i < contacts.size(); i++) {
+            ContactRequestDTO c = contacts.get(i);
+            results.add(new BatchItemDTO(i, c.getUsername(), c.getChannel(), "skipped"));
+        }
+        try (Connection con = Connect.dbase();
+             CallableStatement stmt = con.prepareCall(IdentificationCalls.SAVE_CONTACTS)) {
+            con.setAutoCommit(false);
+            try {
+                int failed = 0;
+                for (int from = 0; from < contacts.size() && failed == 0; from += ARRAY_CHUNK) {
+                    List<ContactRequestDTO> chunk = contacts.subList(from, Math.min(contacts.size(), from + ARRAY_CHUNK));
+                    stmt.setArray(1, stringArray(con, chunk.stream().map(ContactRequestDTO::getUsername).toList()));
+                    stmt.setArray(2, stringArray(con, chunk.stream().map(ContactRequestDTO::getChannel).toList()));
+                    stmt.setArray(3, stringArray(con, chunk.stream().map(ContactRequestDTO::getAddress).toList()));
+                    stmt.setArray(4, stringArray(con, chunk.stream().map(ContactRequestDTO::getConsent).toList()));
+                    stmt.registerOutParameter(5, OracleTypes.ARRAY, STRING_LIST);
                     stmt.execute();
-                    String result = stmt.getString(5);
-                    if (!"success".equalsIgnoreCase(result)) {
-                        log.warn("Failed to save contact for user {}", c.getUsername());
-                        return new APIResponseDTO("unsuccessful", "Contact for user " + c.getUsername() + " was not saved");
+                    Object[] statuses = (Object[]) stmt.getArray(5).getArray();
+                    for (int i = 0; i < chunk.size(); i++) {
+                        String status = i < statuses.length && "success".equalsIgnoreCase((String) statuses[i])
+                                ? "success" : "unsuccessful";
+                        results.get(from + i).setStatus(status);
+                        if (!"success".equals(status)) failed++;
                     }
                 }
+                if (failed == 0) {
+                    con.commit();
+                    ProfileChanges.saved(ProfileCache.Entity.CONTACT,
+                            contacts.stream().map(ContactRequestDTO::getUsername).distinct().toList());
+                    return new BatchResponseDTO("success", "All contacts saved successfully", results);
+                }
+                con.rollback();
+                results.stream().filter(r -> "success".equals(r.getStatus())).forEach(r -> r.setStatus("rolledback"));
+                log.warn("{} of {} contacts were not saved, batch rolled back", failed, contacts.size());
+                return new BatchResponseDTO("unsuccessful", failed + " contact(s) not saved, no contacts were changed", results);
+            } catch (SQLException err) {
+                try {
+                    con.rollback();
+                } catch (SQLException rollback) {
+                    err.addSuppressed(rollback);
+                }
+                throw err;
+            } finally {
+                try {
+                    con.setAutoCommit(true);
+                } catch (SQLException err) {
+                    log.warn("Unable to restore auto-commit after saving contacts: {}", err.getMessage());
+                }
             }
-            return new APIResponseDTO("success", "All contacts saved successfully");
         } catch (SQLException err) {
             log.error("Error while saving multiple contacts", err);
             try {
@@ -111,29 +171,119 @@ public class PersonaDAO {
             } catch (Exception e) {
                 log.error("Failed to log Spectre error", e);
             }
-            return new APIResponseDTO("error", "internal server error");
+            results.forEach(r -> r.setStatus("error"));
+            return new BatchResponseDTO("error", "internal server error", results);
+        } finally {
+            contacts.stream().map(ContactRequestDTO::getUsername).distinct()
+                    .forEach(u -> ProfileCache.invalidate(ProfileCache.Entity.CONTACT, u));
+        }
+    }
+
+    public static List<String> importPersons(List<PersonRequestDTO> persons) {
+        return importEach(IdentificationCalls.IMPORT_PERSONS, "IMPORT PERSONS", ProfileCache.Entity.PERSON, persons,
+                List.of(PersonRequestDTO::getUsername, PersonRequestDTO::getTitle, PersonRequestDTO::getFirstName,
+                        PersonRequestDTO::getMiddleName, PersonRequestDTO::getLastName, PersonRequestDTO::getGender,
+                        PersonRequestDTO::getBirthday));
+    }
+
+    public static List<String> importAddresses(List<AddressRequestDTO> addresses) {
+        return importEach(IdentificationCalls.IMPORT_ADDRESSES, "IMPORT ADDRESSES", ProfileCache.Entity.ADDRESS, addresses,
+                List.of(AddressRequestDTO::getUsername, AddressRequestDTO::getFirstline, AddressRequestDTO::getSecondline,
+                        AddressRequestDTO::getThirdline, AddressRequestDTO::getCity, AddressRequestDTO::getPostcode,
+                        AddressRequestDTO::getCountry));
+    }
+
+    public static List<String> importContacts(List<ContactRequestDTO> contacts) {
+        return importEach(IdentificationCalls.IMPORT_CONTACTS, "IMPORT CONTACTS", ProfileCache.Entity.CONTACT, contacts,
+                List.of(ContactRequestDTO::getUsername, ContactRequestDTO::getChannel, ContactRequestDTO::getAddress,
+                        ContactRequestDTO::getConsent));
+    }
+
+    /**
+     * Binds each chunk of items column by column as string collections and runs one of the
+     * IMPORT_* blocks, so a chunk costs one round trip. Every element succeeds or fails on its own;
+     * the first column must be the username.
+     *
+     * @return one status per item, "success" or the reason it was not saved
+     */
+    private static <T> List<String> importEach(String sql, String label, ProfileCache.Entity entity, List<T> items,
+                                               List<Function<T, String>> columns) {
+        log.debug("Preparing to import {} records ({})", items.size(), label);
+        List<String> statuses = new ArrayList<>(items.size());
+        List<String> saved = new ArrayList<>();
+        try (Connection con = Connect.dbase();
+             CallableStatement stmt = con.prepareCall(sql)) {
+            int out = columns.size() + 1;
+            for (int from = 0; from < items.size(); from += ARRAY_CHUNK) {
+                List<T> chunk = items.subList(from, Math.min(items.size(), from + ARRAY_CHUNK));
+                for (int c = 0; c < columns.size(); c++) {
+                    stmt.setArray(c + 1, stringArray(con, chunk.stream().map(columns.get(c)).toList()));
+                }
+                stmt.registerOutParameter(out, OracleTypes.ARRAY, STRING_LIST);
+                stmt.execute();
+                Object[] results = (Object[]) stmt.getArray(out).getArray();
+                for (int i = 0; i < chunk.size(); i++) {
+                    String status = i < results.length ? (String) results[i] : null;
+                    if ("success".equalsIgnoreCase(status)) {
+                        statuses.add("success");
+                        saved.add(columns.get(0).apply(chunk.get(i)));
+                    } else {
+                        statuses.add(status == null ? "unsuccessful" : status);
+                    }
+                }
+            }
+        } catch (SQLException err) {
+            log.error("Error in identification_pkg ({}) after {} of {} records", label, statuses.size(), items.size(), err);
+            try {
+                Spectre.recordError("TE-20002", "Error in identification_pkg (" + label + "): " + err.getMessage(), PersonaDAO.class.getName());
+            } catch (Exception ignored) {}
+            while (statuses.size() < items.size()) statuses.add("internal server error");
+        } finally {
+            if (!saved.isEmpty()) ProfileChanges.saved(entity, saved);
         }
+        return statuses;
     }
 
     public static APIResponseDTO saveImage(String uname, InputStream avatarStream) {
+        return saveImage(uname, avatarStream, -1);
+    }
+
+    public static APIResponseDTO saveImage(String uname, AvatarUpload upload) {
+        APIResponseDTO result = saveImage(uname, upload.getStream(), upload.getLength());
+        if (upload.isOversized()) {
+            return new APIResponseDTO("unsuccessful", "image exceeds maximum size of " + AvatarUpload.MAX_BYTES + " bytes");
+        }
+        return result;
+    }
+
+    private static APIResponseDTO saveImage(String uname, InputStream avatarStream, long length) {
         log.info("Preparing to create or update user avatar");
         String response;
-        String sql = "{call identification_pkg.saveImage(?,?,?)}";
+        String sql = IdentificationCalls.SAVE_IMAGE;
         try (Connection con = Connect.dbase();
              CallableStatement stmt = con.prepareCall(sql)) {
             stmt.setString(1, uname);
-            stmt.setBlob(2, avatarStream);
+            if (length >= 0) {
+                stmt.setBlob(2, avatarStream, length);
+            } else {
+                stmt.setBlob(2, avatarStream);
+            }
             stmt.registerOutParameter(3, OracleTypes.VARCHAR);
             stmt.execute();
             response = stmt.getString(3);
             if(response.equalsIgnoreCase("success")){
                 response = "success";
+                ProfileChanges.saved(ProfileCache.Entity.AVATAR, uname);
                 return new APIResponseDTO(response,"image saved successfully");
             } else {
                 response = "unsuccessful";
                 return new APIResponseDTO(response,"image not saved");
             }
         } catch (SQLException err) {
+            if (hasCause(err, AvatarUpload.AvatarTooLargeException.class)) {
+                log.warn("Avatar for {} rejected: {}", Redact.pii(uname), err.getMessage());
+                return new APIResponseDTO("unsuccessful", "image not saved");
+            }
             log.error("Error in identification_pkg (SAVE IMAGE)", err);
             try {
                 Spectre.recordError("TE-20001", "Error in identification_pkg (SAVE IMAGE): " + err.getMessage(), PersonaDAO.class.getName());
@@ -149,7 +299,7 @@ public class PersonaDAO {
                                              String middleName, String lastName, String gender, String birthday) {
         log.info("Preparing to create or update user persons record");
         String response;
-        String sql = "{call identification_pkg.savePerson(?,?,?,?,?,?,?,?)}";
+        String sql = IdentificationCalls.SAVE_PERSON;
         try (Connection con = Connect.dbase();
              CallableStatement stmt = con.prepareCall(sql)) {
             stmt.setString(1, username);
@@ -164,6 +314,7 @@ public class PersonaDAO {
             response = stmt.getString(8);
             if(response.equalsIgnoreCase("success")){
                 response = "success";
+                ProfileChanges.saved(ProfileCache.Entity.PERSON, username);
                 return new APIResponseDTO(response,"person detail saved successfully");
             } else {
                 response = "unsuccessful";
@@ -182,71 +333,53 @@ public class PersonaDAO {
     }
 
     public static AddressResponseDTO getAddress(String username) {
-        log.info("Preparing to retrieve user Address details");
+        log.debug("Preparing to retrieve user Address details");
         AddressResponseDTO response = null;
-        String sql = "{call identification_pkg.getAddress(?,?)}";
+        String sql = IdentificationCalls.GET_ADDRESS;
         try (Connection con = Connect.dbase();
              CallableStatement stmt = con.prepareCall(sql)) {
             stmt.setString(1, username);
             stmt.registerOutParameter(2, OracleTypes.CURSOR);
             stmt.execute();
             try (ResultSet rs = (ResultSet) stmt.getObject(2)) {
-                if (rs != null && rs.next()) {
-                    response = new AddressResponseDTO();
-                    response.setUsername(rs.getString("username"));
-                    response.setFirstline(rs.getString("firstline"));
-                    response.setSecondline(rs.getString("secondline"));
-                    response.setThirdline(rs.getString("thirdline"));
-                    response.setCity(rs.getString("city"));
-                    response.setPostcode(rs.getString("postcode"));
-                    response.setCountry(rs.getString("country"));
-                    response.setModifiedBy(rs.getString("modifiedBy"));
-                    response.setModifiedDate(rs.getString("modifiedDate"));
-                }
+                response = mapAddress(rs);
             }
         } catch (SQLException err) {
             log.error("Error in identification_pkg (GET ADDRESS)", err);
             try {
                 Spectre.recordError("TE-20001", err.getMessage(), PersonaDAO.class.getName());
             } catch (Exception ignored) {}
+            throw new IllegalStateException("identification_pkg (GET ADDRESS) failed", err);
         }
         return response;
     }
 
     public static List<ContactResponseDTO> getContact(String username) {
-        log.info("Preparing to retrieve user Contact details");
+        log.debug("Preparing to retrieve user Contact details");
         List<ContactResponseDTO> response = new ArrayList<>();
-        String sql = "{call identification_pkg.getContact(?,?)}";
+        String sql = IdentificationCalls.GET_CONTACT;
         try (Connection con = Connect.dbase();
              CallableStatement stmt = con.prepareCall(sql)) {
             stmt.setString(1, username);
             stmt.registerOutParameter(2, OracleTypes.CURSOR);
             stmt.execute();
             try (ResultSet rs = (ResultSet) stmt.getObject(2)) {
-                while (rs != null && rs.next()) {
-                    ContactResponseDTO contact = new ContactResponseDTO();
-                    contact.setUsername(rs.getString("username"));
-                    contact.setChannel(rs.getString("channel"));
-                    contact.setAddress(rs.getString("address"));
-                    contact.setConsent(rs.getString("consent"));
-                    contact.setModifiedBy(rs.getString("modifiedBy"));
-                    contact.setModifiedDate(rs.getString("modifiedDate"));
-                    response.add(contact);
-                }
+                response.addAll(mapContacts(rs));
             }
         } catch (SQLException err) {
             log.error("Error in identification_pkg (GET CONTACT)", err);
             try {
                 Spectre.recordError("TE-20001", err.getMessage(), PersonaDAO.class.getName());
             } catch (Exception ignored) {}
+            throw new IllegalStateException("identification_pkg (GET CONTACT) failed", err);
         }
         return response; // NEVER return null
     }
 
     public static ImageResponseDTO getImage(String username) {
-        log.info("Preparing to retrieve user Avatar details");
+        log.debug("Preparing to retrieve user Avatar details");
         ImageResponseDTO response = null;
-        String sql = "{call identification_pkg.getImage(?,?)}";
+        String sql = IdentificationCalls.GET_IMAGE;
         try (Connection con = Connect.dbase();
              CallableStatement stmt = con.prepareCall(sql)) {
             stmt.setString(1, username);
@@ -263,7 +396,9 @@ public class PersonaDAO {
                         byte[] bytes = blob.getBytes(1, (int) blob.length());
                         blob.free();
                         String base64 = Base64.getEncoder().encodeToString(bytes);
-                        response.setAvatar("data:image/png;base64," + base64);
+                        ImageFormat format = ImageFormat.sniff(bytes, bytes.length);
+                        if (format == ImageFormat.UNKNOWN) format = ImageFormat.PNG;
+                        response.setAvatar("data:" + format.getContentType() + ";base64," + base64);
                     } else {
                         response.setAvatar(null);
                     }
@@ -276,49 +411,469 @@ public class PersonaDAO {
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
+            throw new IllegalStateException("identification_pkg (GET IMAGE) failed", err);
+        }
+        return response;
+    }
+
+    /**
+     * Reads the avatar's length, type and modification time only. LOB prefetch is cut down to the
+     * few header bytes needed for type sniffing, so the row arrives with the locator, the length and
+     * the header in one round trip and the image itself never leaves the database.
+     */
+    public static ImageMetaDTO getImageMeta(String username) {
+        log.debug("Preparing to retrieve user Avatar metadata");
+        ImageMetaDTO response = null;
+        String sql = IdentificationCalls.GET_IMAGE;
+        try (Connection con = Connect.dbase();
+             CallableStatement stmt = con.prepareCall(sql)) {
+            headerPrefetch(stmt);
+            stmt.setString(1, username);
+            stmt.registerOutParameter(2, OracleTypes.CURSOR);
+            stmt.execute();
+            try (ResultSet rs = (ResultSet) stmt.getObject(2)) {
+                response = mapImageMeta(rs);
+            }
+        } catch (SQLException err) {
+            log.error("Error in identification_pkg (GET IMAGE META)", err);
+            try {
+                Spectre.recordError("TE-20001", err.getMessage(), PersonaDAO.class.getName());
+            } catch (Exception ignored) {}
+            throw new IllegalStateException("identification_pkg (GET IMAGE META) failed", err);
         }
         return response;
     }
 
+    /**
+     * Hands the avatar BLOB stream to the reader while the cursor is still open,
+     * so the image is never materialised on the heap.
+     *
+     * @return the reader's result, or null when the user has no avatar
+     */
+    public static <T> T readImage(String username, ProfileRepository.BlobReader<T> reader) throws IOException {
+        return readAvatar(username, (rs, blob) -> {
+            try (InputStream in = blob.getBinaryStream()) {
+                return reader.read(in);
+            }
+        });
+    }
+
+    /**
+     * Streams the avatar to out in one read, provided the row still has the size and modifiedDate
+     * of meta, so a Content-Length taken from meta holds.
+     *
+     * @return false, with nothing written, when the avatar is gone or changed since meta was read
+     */
+    public static boolean writeImage(ImageMetaDTO meta, OutputStream out) throws IOException {
+        Boolean written = readAvatar(meta.getUsername(), (rs, blob) -> {
+            if (blob.length() != meta.getSize() || !Objects.equals(rs.getString("modifiedDate"), meta.getModifiedDate()))
+                return false;
+            try (InputStream in = blob.getBinaryStream()) {
+                in.transferTo(out);
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(written);
+    }
+
+    private static <T> T readAvatar(String username, AvatarReader<T> reader) throws IOException {
+        String sql = IdentificationCalls.GET_IMAGE;
+        try (Connection con = Connect.dbase();
+             CallableStatement stmt = con.prepareCall(sql)) {
+            stmt.setString(1, username);
+            stmt.registerOutParameter(2, OracleTypes.CURSOR);
+            stmt.execute();
+            try (ResultSet rs = (ResultSet) stmt.getObject(2)) {
+                if (rs == null || !rs.next()) return null;
+                Blob blob = rs.getBlob("avatar");
+                if (blob == null) return null;
+                try {
+                    return reader.read(rs, blob);
+                } finally {
+                    blob.free();
+                }
+            }
+        } catch (SQLException err) {
+            log.error("Error in identification_pkg (READ IMAGE)", err);
+            try {
+                Spectre.recordError("TE-20001", err.getMessage(), PersonaDAO.class.getName());
+            } catch (Exception ignored) {}
+            throw new IOException("Unable to read avatar for " + username, err);
+        }
+    }
+
     public static PersonResponseDTO getPerson(String username) {
-        log.info("Preparing to retrieve user Person details");
+        log.debug("Preparing to retrieve user Person details");
         PersonResponseDTO response = null;
-        String sql = "{call identification_pkg.getPerson(?,?)}";
+        String sql = IdentificationCalls.GET_PERSON;
         try (Connection con = Connect.dbase();
              CallableStatement stmt = con.prepareCall(sql)) {
             stmt.setString(1, username);
             stmt.registerOutParameter(2, OracleTypes.CURSOR);
             stmt.execute();
             try (ResultSet rs = (ResultSet) stmt.getObject(2)) {
-                if (rs != null && rs.next()) {
-                    response = new PersonResponseDTO();
-                    response.setUsername(rs.getString("username"));
-                    response.setTitle(rs.getString("title"));
-                    response.setFirstName(rs.getString("firstName"));
-                    response.setMiddleName(rs.getString("middleName"));
-                    response.setLastName(rs.getString("lastName"));
-                    response.setZodiacSign(rs.getString("zodiacSign"));
-                    response.setGender(rs.getString("gender"));
-                    response.setBirthday(rs.getString("birthday"));
-                    response.setAge(rs.getString("age"));
-                    response.setModifiedBy(rs.getString("modifiedBy"));
-                    response.setModifiedDate(rs.getString("modifiedDate"));
-                }
+                response = mapPerson(rs);
             }
         } catch (SQLException err) {
             log.error("Error in identification_pkg (GET PERSON)", err);
             try {
                 Spectre.recordError("TE-20001", err.getMessage(), PersonaDAO.class.getName());
             } catch (Exception ignored) {}
+            throw new IllegalStateException("identification_pkg (GET PERSON) failed", err);
         }
         return response;
     }
 
 
+    public static Map<String, PersonResponseDTO> getPersons(Collection<String> usernames) {
+        return getBatch(IdentificationCalls.EACH_PERSON, "GET PERSONS", usernames, PersonaDAO::mapPerson);
+    }
+
+    public static Map<String, AddressResponseDTO> getAddresses(Collection<String> usernames) {
+        return getBatch(IdentificationCalls.EACH_ADDRESS, "GET ADDRESSES", usernames, PersonaDAO::mapAddress);
+    }
+
+    public static Map<String, List<ContactResponseDTO>> getContacts(Collection<String> usernames) {
+        return getBatch(IdentificationCalls.EACH_CONTACT, "GET CONTACTS", usernames, PersonaDAO::mapContacts);
+    }
+
+    public static Map<String, ImageMetaDTO> getImageMetas(Collection<String> usernames) {
+        return getEach(IdentificationCalls.GET_IMAGE, "GET IMAGE METAS", usernames, true, PersonaDAO::mapImageMeta);
+    }
+
+    /**
+     * Reads a batch through one of the EACH_* blocks, one round trip per READ_CHUNK usernames.
+     * Users without a row are left out of the result; a failed chunk throws rather than
+     * returning the users read so far.
+     */
+    private static <T> Map<String, T> getBatch(String sql, String label, Collection<String> usernames,
+                                               RowsMapper<T> mapper) {
+        log.debug("Preparing to retrieve {} records ({})", usernames.size(), label);
+        Map<String, T> response = new HashMap<>();
+        List<String> all = new ArrayList<>(usernames);
+        try (Connection con = Connect.dbase();
+             CallableStatement stmt = con.prepareCall(sql)) {
+            for (int from = 0; from < all.size(); from += READ_CHUNK) {
+                response.putAll(readEach(con, stmt, all.subList(from, Math.min(all.size(), from + READ_CHUNK)), mapper));
+            }
+        } catch (SQLException err) {
+            log.error("Error in identification_pkg ({})", label, err);
+            try {
+                Spectre.recordError("TE-20001", "Error in identification_pkg (" + label + "): " + err.getMessage(), PersonaDAO.class.getName());
+            } catch (Exception ignored) {}
+            throw new IllegalStateException("identification_pkg (" + label + ") failed", err);
+        }
+        return response;
+    }
+
+    /* runs one EACH_* call for the chunk and regroups the returned cells into rows per username */
+    private static <T> Map<String, T> readEach(Connection con, CallableStatement stmt, List<String> chunk,
+                                               RowsMapper<T> mapper) throws SQLException {
+        stmt.setArray(1, stringArray(con, chunk));
+        stmt.registerOutParameter(2, OracleTypes.ARRAY, NUMBER_LIST);
+        stmt.registerOutParameter(3, OracleTypes.ARRAY, NUMBER_LIST);
+        stmt.registerOutParameter(4, OracleTypes.ARRAY, STRING_LIST);
+        stmt.registerOutParameter(5, OracleTypes.ARRAY, STRING_LIST);
+        stmt.execute();
+        Object[] owners = (Object[]) stmt.getArray(2).getArray();
+        Object[] rows = (Object[]) stmt.getArray(3).getArray();
+        Object[] columns = (Object[]) stmt.getArray(4).getArray();
+        Object[] values = (Object[]) stmt.getArray(5).getArray();
+        List<List<Row>> perUser = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) perUser.add(new ArrayList<>());
+        Map<String, String> cells = null;
+        int current = -1;
+        for (int i = 0; i < owners.length; i++) {
+            int row = ((Number) rows[i]).intValue();
+            if (row != current) {
+                Map<String, String> next = new HashMap<>();
+                perUser.get(((Number) owners[i]).intValue() - 1).add(column -> next.get(column.toUpperCase(Locale.ROOT)));
+                cells = next;
+                current = row;
+            }
+            cells.put((String) columns[i], (String) values[i]);
+        }
+        Map<String, T> response = new HashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            T value = perUser.get(i).isEmpty() ? null : mapper.map(perUser.get(i));
+            if (value != null) response.put(chunk.get(i), value);
+        }
+        return response;
+    }
+
+    /**
+     * Runs a single-user cursor procedure for every username over one connection and one
+     * prepared call. Users without a row are left out of the result; a failure throws rather
+     * than returning a partial map. With headerOnly, LOB prefetch is limited to the image header
+     * as in {@link #getImageMeta(String)}.
+     */
+    private static <T> Map<String, T> getEach(String sql, String label, Collection<String> usernames,
+                                              boolean headerOnly, CursorMapper<T> mapper) {
+        log.debug("Preparing to retrieve {} records ({})", usernames.size(), label);
+        Map<String, T> response = new HashMap<>();
+        try (Connection con = Connect.dbase();
+             CallableStatement stmt = con.prepareCall(sql)) {
+            if (headerOnly) headerPrefetch(stmt);
+            for (String username : usernames) {
+                stmt.setString(1, username);
+                stmt.registerOutParameter(2, OracleTypes.CURSOR);
+                stmt.execute();
+                try (ResultSet rs = (ResultSet) stmt.getObject(2)) {
+                    T value = mapper.map(rs);
+                    if (value != null) response.put(username, value);
+                }
+            }
+        } catch (SQLException err) {
+            log.error("Error in identification_pkg ({})", label, err);
+            try {
+                Spectre.recordError("TE-20001", "Error in identification_pkg (" + label + "): " + err.getMessage(), PersonaDAO.class.getName());
+            } catch (Exception ignored) {}
+            throw new IllegalStateException("identification_pkg (" + label + ") failed", err);
+        }
+        return response;
+    }
+
+    /**
+     * Opens the export cursor and reads the watermark the database took with it. The connection
+     * stays checked out until the returned export is closed.
+     */
+    public static ProfileRepository.Export export(long since) throws IOException {
+        log.debug("Preparing to export profiles modified since {}", since);
+        Connection con = null;
+        CallableStatement stmt = null;
+        try {
+            con = Connect.dbase();
+            stmt = con.prepareCall(IdentificationCalls.EXPORT_PROFILES);
+            stmt.setFetchSize(EXPORT_FETCH_SIZE);
+            if (since > 0) {
+                stmt.setTimestamp(1, new Timestamp(since));
+            } else {
+                stmt.setNull(1, Types.TIMESTAMP);
+            }
+            stmt.registerOutParameter(2, Types.TIMESTAMP);
+            stmt.registerOutParameter(3, OracleTypes.CURSOR);
+            stmt.execute();
+            ResultSet rs = (ResultSet) stmt.getObject(3);
+            rs.setFetchSize(EXPORT_FETCH_SIZE);
+            return new OracleExport(con, stmt, rs, stmt.getTimestamp(2).getTime());
+        } catch (SQLException err) {
+            close(stmt, con);
+            throw exportFailed(err, 0);
+        }
+    }
+
+    private static IOException exportFailed(SQLException err, long rows) {
+        log.error("Error in identification_export_pkg (EXPORT PROFILES) after {} rows", rows, err);
+        try {
+            Spectre.recordError("TE-20001", err.getMessage(), PersonaDAO.class.getName());
+        } catch (Exception ignored) {}
+        return new IOException("profile export failed after " + rows + " rows", err);
+    }
+
+    private static void close(AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            if (resource == null) continue;
+            try {
+                resource.close();
+            } catch (Exception err) {
+                log.warn("Unable to close export resource: {}", err.getMessage());
+            }
+        }
+    }
+
+    /*
+     * Reads the export cursor in one pass. Rows come one per contact in username order, so a
+     * profile is complete when the username changes. A failure part way is rethrown so a streamed
+     * response is cut short rather than looking complete.
+     */
+    private static final class OracleExport implements ProfileRepository.Export {
+        private final Connection con;
+        private final CallableStatement stmt;
+        private final ResultSet rs;
+        private final long watermark;
+
+        private OracleExport(Connection con, CallableStatement stmt, ResultSet rs, long watermark) {
+            this.con = con;
+            this.stmt = stmt;
+            this.rs = rs;
+            this.watermark = watermark;
+        }
+
+        @Override
+        public long watermark() {
+            return watermark;
+        }
+
+        @Override
+        public long stream(ProfileRepository.ExportSink sink) throws IOException {
+            long rows = 0;
+            try {
+                String current = null;
+                PersonResponseDTO person = null;
+                AddressResponseDTO address = null;
+                List<ContactResponseDTO> contacts = new ArrayList<>();
+                while (rs.next()) {
+                    String username = rs.getString("username");
+                    if (!username.equals(current)) {
+                        if (current != null) {
+                            sink.accept(current, person, address, contacts.isEmpty() ? null : contacts);
+                            rows++;
+                        }
+                        current = username;
+                        person = exportPerson(rs);
+                        address = exportAddress(rs);
+                        contacts = new ArrayList<>();
+                    }
+                    if (rs.getString("channel") != null) contacts.add(exportContact(rs));
+                }
+                if (current != null) {
+                    sink.accept(current, person, address, contacts.isEmpty() ? null : contacts);
+                    rows++;
+                }
+            } catch (SQLException err) {
+                throw exportFailed(err, rows);
+            }
+            return rows;
+        }
+
+        @Override
+        public void close() {
+            PersonaDAO.close(rs, stmt, con);
+        }
+    }
+
+    private static PersonResponseDTO exportPerson(ResultSet rs) throws SQLException {
+        if (rs.getString("modifiedDate") == null) return null;
+        PersonResponseDTO person = new PersonResponseDTO();
+        fillPerson(rs::getString, person);
+        return person;
+    }
+
+    private static AddressResponseDTO exportAddress(ResultSet rs) throws SQLException {
+        if (rs.getString("addressModifiedDate") == null) return null;
+        AddressResponseDTO address = new AddressResponseDTO();
+        fillAddress(column -> switch (column) {
+            case "modifiedBy" -> rs.getString("addressModifiedBy");
+            case "modifiedDate" -> rs.getString("addressModifiedDate");
+            default -> rs.getString(column);
+        }, address);
+        return address;
+    }
+
+    private static ContactResponseDTO exportContact(ResultSet rs) throws SQLException {
+        return mapContact(column -> switch (column) {
+            case "address" -> rs.getString("contactAddress");
+            case "modifiedBy" -> rs.getString("contactModifiedBy");
+            case "modifiedDate" -> rs.getString("contactModifiedDate");
+            default -> rs.getString(column);
+        });
+    }
+
+    public static PersonResponseDTO mapPerson(ResultSet rs) throws SQLException {
+        if (rs == null || !rs.next()) return null;
+        PersonResponseDTO response = new PersonResponseDTO();
+        fillPerson(rs::getString, response);
+        return response;
+    }
+
+    private static PersonResponseDTO mapPerson(List<Row> rows) throws SQLException {
+        PersonResponseDTO response = new PersonResponseDTO();
+        fillPerson(rows.get(0), response);
+        return response;
+    }
+
+    private static void fillPerson(Row rs, PersonResponseDTO response) throws SQLException {
+        response.setUsername(rs.getString("username"));
+        response.setTitle(rs.getString("title"));
+        response.setFirstName(rs.getString("firstName"));
+        response.setMiddleName(rs.getString("middleName"));
+        response.setLastName(rs.getString("lastName"));
+        response.setZodiacSign(rs.getString("zodiacSign"));
+        response.setGender(rs.getString("gender"));
+        response.setBirthday(rs.getString("birthday"));
+        response.setAge(rs.getString("age"));
+        response.setModifiedBy(rs.getString("modifiedBy"));
+        response.setModifiedDate(rs.getString("modifiedDate"));
+    }
+
+    public static AddressResponseDTO mapAddress(ResultSet rs) throws SQLException {
+        if (rs == null || !rs.next()) return null;
+        AddressResponseDTO response = new AddressResponseDTO();
+        fillAddress(rs::getString, response);
+        return response;
+    }
+
+    private static AddressResponseDTO mapAddress(List<Row> rows) throws SQLException {
+        AddressResponseDTO response = new AddressResponseDTO();
+        fillAddress(rows.get(0), response);
+        return response;
+    }
+
+    private static void fillAddress(Row rs, AddressResponseDTO response) throws SQLException {
+        response.setUsername(rs.getString("username"));
+        response.setFirstline(rs.getString("firstline"));
+        response.setSecondline(rs.getString("secondline"));
+        response.setThirdline(rs.getString("thirdline"));
+        response.setCity(rs.getString("city"));
+        response.setPostcode(rs.getString("postcode"));
+        response.setCountry(rs.getString("country"));
+        response.setModifiedBy(rs.getString("modifiedBy"));
+        response.setModifiedDate(rs.getString("modifiedDate"));
+    }
+
+    public static List<ContactResponseDTO> mapContacts(ResultSet rs) throws SQLException {
+        List<ContactResponseDTO> response = new ArrayList<>();
+        while (rs != null && rs.next()) {
+            response.add(mapContact(rs::getString));
+        }
+        return response;
+    }
+
+    private static List<ContactResponseDTO> mapContacts(List<Row> rows) throws SQLException {
+        List<ContactResponseDTO> response = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            response.add(mapContact(row));
+        }
+        return response;
+    }
+
+    private static ContactResponseDTO mapContact(Row rs) throws SQLException {
+        ContactResponseDTO contact = new ContactResponseDTO();
+        contact.setUsername(rs.getString("username"));
+        contact.setChannel(rs.getString("channel"));
+        contact.setAddress(rs.getString("address"));
+        contact.setConsent(rs.getString("consent"));
+        contact.setModifiedBy(rs.getString("modifiedBy"));
+        contact.setModifiedDate(rs.getString("modifiedDate"));
+        return contact;
+    }
+
+    /**
+     * Maps the avatar row to its metadata, reading only the BLOB length and the first header bytes.
+     */
+    public static ImageMetaDTO mapImageMeta(ResultSet rs) throws SQLException {
+        if (rs == null || !rs.next()) return null;
+        Blob blob = rs.getBlob("avatar");
+        if (blob == null) return null;
+        long size = blob.length();
+        byte[] header = size > 0
+                ? blob.getBytes(1, (int) Math.min(size, ImageFormat.HEADER_LENGTH))
+                : new byte[0];
+        blob.free();
+        ImageMetaDTO response = new ImageMetaDTO();
+        response.setUsername(rs.getString("username"));
+        response.setContentType(ImageFormat.sniff(header, header.length).getContentType());
+        response.setSize(size);
+        response.setModifiedBy(rs.getString("modifiedBy"));
+        response.setModifiedDate(rs.getString("modifiedDate"));
+        response.setModifiedTime(modifiedTime(rs));
+        return response;
+    }
+
     public static APIResponseDTO removeAddress(String username) {
         log.info("Preparing to remove user Address details");
         String response;
-        String sql = "{call identification_pkg.removeAddress(?,?)}";
+        String sql = IdentificationCalls.REMOVE_ADDRESS;
         try (Connection con = Connect.dbase();
              CallableStatement stmt = con.prepareCall(sql)) {
             stmt.setString(1, username);
@@ -327,6 +882,7 @@ public class PersonaDAO {
             response = stmt.getString(2);
             if (response.equalsIgnoreCase("success")) {
                 response = "success";
+                ProfileChanges.removed(ProfileCache.Entity.ADDRESS, username);
                 return new APIResponseDTO(response,"address detail removed successfully");
             } else {
                 response = "unsuccessful";
@@ -347,7 +903,7 @@ public class PersonaDAO {
     public static APIResponseDTO removeContact(String username, String channel) {
         log.info("Preparing to remove user Contact details");
         String response;
-        String sql = "{call identification_pkg.removeContact(?,?,?)}";
+        String sql = IdentificationCalls.REMOVE_CONTACT;
         try (Connection con = Connect.dbase();
              CallableStatement stmt = con.prepareCall(sql)) {
             stmt.setString(1, username);
@@ -357,6 +913,7 @@ public class PersonaDAO {
             response = stmt.getString(3);
             if (response.equalsIgnoreCase("success")) {
                 response = "success";
+                ProfileChanges.removed(ProfileCache.Entity.CONTACT, username);
                 return new APIResponseDTO(response,"contact detail removed successfully");
             } else {
                 response = "unsuccessful";
@@ -377,7 +934,7 @@ public class PersonaDAO {
     public static APIResponseDTO removeImage(String username) {
         log.info("Preparing to remove user Avatar details");
         String response;
-        String sql = "{call identification_pkg.removeImage(?,?)}";
+        String sql = IdentificationCalls.REMOVE_IMAGE;
         try (Connection con = Connect.dbase();
              CallableStatement stmt = con.prepareCall(sql)) {
             stmt.setString(1, username);
@@ -386,6 +943,7 @@ public class PersonaDAO {
             response = stmt.getString(2);
             if (response.equalsIgnoreCase("success")) {
                 response = "success";
+                ProfileChanges.removed(ProfileCache.Entity.AVATAR, username);
                 return new APIResponseDTO(response,"image removed successfully");
             } else {
                 response = "unsuccessful";
@@ -406,7 +964,7 @@ public class PersonaDAO {
     public static APIResponseDTO removePerson(String username) {
         log.info("Preparing to remove user Person details");
         String response;
-        String sql = "{call identification_pkg.removePerson(?,?)}";
+        String sql = IdentificationCalls.REMOVE_PERSON;
         try (Connection con = Connect.dbase();
              CallableStatement stmt = con.prepareCall(sql)) {
             stmt.setString(1, username);
@@ -415,6 +973,7 @@ public class PersonaDAO {
             response = stmt.getString(2);
             if (response.equalsIgnoreCase("success")) {
                 response = "success";
+                ProfileChanges.removed(ProfileCache.Entity.PERSON, username);
                 return new APIResponseDTO(response,"person detail removed successfully");
             } else {
                 response = "unsuccessful";
@@ -433,10 +992,10 @@ public class PersonaDAO {
     }
 
     public static APIResponseDTO getMetrics(String username) {
-        log.info("Preparing to retrieve user profile completion");
+        log.debug("Preparing to retrieve user profile completion");
         String response;
         String status;
-        String sql = "{call identification_pkg.metrics(?,?)}";
+        String sql = IdentificationCalls.METRICS;
         try (Connection con = Connect.dbase();
              CallableStatement stmt = con.prepareCall(sql)) {
             stmt.setString(1, username);
@@ -463,4 +1022,50 @@ public class PersonaDAO {
         }
     }
 
+    private static Array stringArray(Connection con, List<String> values) throws SQLException {
+        return con.unwrap(OracleConnection.class).createOracleArray(STRING_LIST, values.toArray(new String[0]));
+    }
+
+    private static void headerPrefetch(CallableStatement stmt) throws SQLException {
+        stmt.unwrap(OracleStatement.class).setLobPrefetchSize(ImageFormat.HEADER_LENGTH);
+    }
+
+    private static boolean hasCause(Throwable err, Class<? extends Throwable> type) {
+        for (Throwable t = err; t != null; t = t.getCause()) {
+            if (type.isInstance(t)) return true;
+        }
+        return false;
+    }
+
+    private static long modifiedTime(ResultSet rs) {
+        try {
+            Timestamp ts = rs.getTimestamp("modifiedDate");
+            return ts == null ? 0 : ts.getTime();
+        } catch (SQLException err) {
+            return 0;
+        }
+    }
+
+    @FunctionalInterface
+    public interface CursorMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    /* one cursor row read by column name, from a ResultSet or from the cells an EACH_* call returned */
+    @FunctionalInterface
+    private interface Row {
+        String getString(String column) throws SQLException;
+    }
+
+    /* reads the avatar BLOB of the current getImage row while the cursor is open */
+    @FunctionalInterface
+    private interface AvatarReader<T> {
+        T read(ResultSet rs, Blob blob) throws SQLException, IOException;
+    }
+
+    /* maps every row one user's cursor returned, never called with an empty list */
+    @FunctionalInterface
+    private interface RowsMapper<T> {
+        T map(List<Row> rows) throws SQLException;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      ProfileBatch.java                                               *
+ * Created:   17/10/2026, 20:42                                               *
+ * Modified:  17/10/2026, 22:10                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.dao.mapper;
+
+import com.aerosimo.ominet.core.config.Settings;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * Splits bulk profile lookups into chunks and fetches them concurrently.
+ * Each chunk costs one connection checkout; the number of chunks in flight per call is capped
+ * by personahub.batch.parallelism so a large batch cannot drain the connection pool.
+ * If any chunk fails the whole lookup fails, so the users of that chunk are never reported
+ * as missing.
+ */
+public class ProfileBatch {
+
+    private static final Logger log = LogManager.getLogger(ProfileBatch.class.getName());
+
+    public static final int MAX_USERNAMES = Settings.getInt("personahub.batch.maxUsernames", 500);
+    private static final int CHUNK_SIZE = Math.max(1, Settings.getInt("personahub.batch.chunkSize", 100));
+    private static final int PARALLELISM = Math.max(1, Settings.getInt("personahub.batch.parallelism", 4));
+
+    private static final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("batch-", 0).factory());
+
+    public static <T> Map<String, T> fetch(Collection<String> usernames,
+                                           Function<Collection<String>, Map<String, T>> loader) {
+        List<String> all = new ArrayList<>(usernames);
+        if (all.size() <= CHUNK_SIZE) return loader.apply(all);
+        Semaphore slots = new Semaphore(PARALLELISM);
+        List<Future<Map<String, T>>> chunks = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += CHUNK_SIZE) {
+            List<String> chunk = all.subList(from, Math.min(all.size(), from + CHUNK_SIZE));
+            chunks.add(executor.submit(() -> {
+                slots.acquire();
+                try {
+                    return loader.apply(chunk);
+                } finally {
+                    slots.release();
+                }
+            }));
+        }
+        Map<String, T> result = new HashMap<>();
+        try {
+            for (Future<Map<String, T>> chunk : chunks) {
+                result.putAll(chunk.get());
+            }
+        } catch (ExecutionException err) {
+            chunks.forEach(chunk -> chunk.cancel(true));
+            log.error("Bulk profile chunk failed", err.getCause());
+            if (err.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException("bulk profile chunk failed", err.getCause());
+        } catch (InterruptedException err) {
+            chunks.forEach(chunk -> chunk.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while fetching a bulk profile lookup", err);
+        }
+        return result;
+    }
+}
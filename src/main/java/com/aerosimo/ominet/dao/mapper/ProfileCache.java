@@ -0,0 +1,152 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      ProfileCache.java                                               *
+ * Created:   17/10/2026, 20:37                                               *
+ * Modified:  17/10/2026, 21:23                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.dao.mapper;
+
+import com.aerosimo.ominet.core.config.Settings;
+import com.aerosimo.ominet.dao.impl.AddressResponseDTO;
+import com.aerosimo.ominet.dao.impl.ContactResponseDTO;
+import com.aerosimo.ominet.dao.impl.ImageResponseDTO;
+import com.aerosimo.ominet.dao.impl.PersonResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Read-through cache in front of the ProfileRepository profile reads.
+ * Entries are keyed by entity type and username and are invalidated through ProfileChanges by the
+ * matching save/remove calls of the ProfileRepository backend, which also drops the entry's ProfileVersions record.
+ * Misses and empty results are not cached.
+ */
+public class ProfileCache {
+
+    private static final Logger log = LogManager.getLogger(ProfileCache.class.getName());
+
+    public enum Entity { PERSON, ADDRESS, CONTACT, AVATAR }
+
+    private record Key(Entity entity, String username) {}
+
+    private static final Cache<Key, Object> cache = Caffeine.newBuilder()
+            .expireAfterWrite(Settings.getLong("personahub.cache.ttlSeconds", 300), TimeUnit.SECONDS)
+            .maximumWeight(Settings.getLong("personahub.cache.maxBytes", 64L * 1024 * 1024))
+            .weigher((Key key, Object value) -> weigh(value))
+            .recordStats()
+            .build();
+
+    public static PersonResponseDTO getPerson(String username) {
+        return (PersonResponseDTO) cache.get(new Key(Entity.PERSON, username),
+                key -> ProfileRepository.instance().getPerson(key.username()));
+    }
+
+    public static AddressResponseDTO getAddress(String username) {
+        return (AddressResponseDTO) cache.get(new Key(Entity.ADDRESS, username),
+                key -> ProfileRepository.instance().getAddress(key.username()));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<ContactResponseDTO> getContact(String username) {
+        List<ContactResponseDTO> list = (List<ContactResponseDTO>) cache.get(new Key(Entity.CONTACT, username), key -> {
+            List<ContactResponseDTO> loaded = ProfileRepository.instance().getContact(key.username());
+            return loaded.isEmpty() ? null : List.copyOf(loaded);
+        });
+        return list == null ? new ArrayList<>() : list;
+    }
+
+    public static ImageResponseDTO getImage(String username) {
+        return (ImageResponseDTO) cache.get(new Key(Entity.AVATAR, username),
+                key -> ProfileRepository.instance().getImage(key.username()));
+    }
+
+    public static Map<String, PersonResponseDTO> getPersons(Collection<String> usernames) {
+        return getAll(Entity.PERSON, usernames, ProfileRepository.instance()::getPersons);
+    }
+
+    public static Map<String, AddressResponseDTO> getAddresses(Collection<String> usernames) {
+        return getAll(Entity.ADDRESS, usernames, ProfileRepository.instance()::getAddresses);
+    }
+
+    public static Map<String, List<ContactResponseDTO>> getContacts(Collection<String> usernames) {
+        return getAll(Entity.CONTACT, usernames, ProfileRepository.instance()::getContacts);
+    }
+
+    /**
+     * Answers what it can from the cache and loads only the misses, in chunks, through ProfileBatch.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Map<String, T> getAll(Entity entity, Collection<String> usernames,
+                                             Function<Collection<String>, Map<String, T>> loader) {
+        List<Key> keys = usernames.stream().map(username -> new Key(entity, username)).toList();
+        Map<Key, Object> found = cache.getAll(keys, missing -> {
+            List<String> names = missing.stream().map(Key::username).toList();
+            Map<Key, Object> loaded = new HashMap<>();
+            ProfileBatch.fetch(names, loader).forEach((username, value) -> loaded.put(new Key(entity, username), value));
+            return loaded;
+        });
+        Map<String, T> result = new LinkedHashMap<>();
+        found.forEach((key, value) -> result.put(key.username(), (T) value));
+        return result;
+    }
+
+    public static void invalidate(Entity entity, String username) {
+        log.debug("Invalidating cached {} for {}", entity, username);
+        cache.invalidate(new Key(entity, username));
+        ProfileVersions.invalidate(entity, username);
+    }
+
+    public static CacheStats stats() {
+        return cache.stats();
+    }
+
+    public static long size() {
+        return cache.estimatedSize();
+    }
+
+    private static int weigh(Object value) {
+        if (value instanceof ImageResponseDTO image && image.getAvatar() != null) {
+            return 256 + image.getAvatar().length();
+        }
+        if (value instanceof List<?> list) {
+            return 256 * list.size();
+        }
+        return 512;
+    }
+}
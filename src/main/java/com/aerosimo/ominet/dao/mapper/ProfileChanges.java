@@ -0,0 +1,198 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      ProfileChanges.java                                             *
+ * Created:   17/10/2026, 21:23                                               *
+ * Modified:  17/10/2026, 22:14                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.dao.mapper;
+
+import com.aerosimo.ominet.core.config.Settings;
+import com.aerosimo.ominet.dao.impl.ProfileChangeDTO;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The single hook for successful profile writes: drops the cached copies of the entity, keeps the
+ * change in a ring buffer of personahub.changes.bufferSize entries and hands it to every matching
+ * subscriber. Event ids are "boot-sequence", so a Last-Event-ID from an earlier process, or one the
+ * ring has already overwritten, is recognised and answered with a reset instead of a silent gap.
+ * Subscriber queues are bounded; a subscriber that falls personahub.changes.subscriberQueue changes
+ * behind is cut off and resumes from the ring when it reconnects.
+ */
+public class ProfileChanges {
+
+    public enum Type { SAVED, REMOVED }
+
+    private static final int BUFFER_SIZE = Math.max(16, Settings.getInt("personahub.changes.bufferSize", 4096));
+    private static final int QUEUE_SIZE = Math.max(1, Settings.getInt("personahub.changes.subscriberQueue", 256));
+    private static final int MAX_SUBSCRIBERS = Settings.getInt("personahub.changes.maxSubscribers", 1000);
+    private static final String BOOT = Long.toString(System.currentTimeMillis(), 36);
+
+    private static final ProfileChangeDTO[] ring = new ProfileChangeDTO[BUFFER_SIZE];
+    private static final Set<Subscription> subscribers = ConcurrentHashMap.newKeySet();
+    private static final ReentrantLock lock = new ReentrantLock();
+    private static final LongAdder overflows = new LongAdder();
+    private static long sequence; // guarded by lock
+
+    public static void saved(ProfileCache.Entity entity, String username) {
+        publish(Type.SAVED, entity, username);
+    }
+
+    public static void saved(ProfileCache.Entity entity, Collection<String> usernames) {
+        usernames.forEach(username -> publish(Type.SAVED, entity, username));
+    }
+
+    public static void removed(ProfileCache.Entity entity, String username) {
+        publish(Type.REMOVED, entity, username);
+    }
+
+    private static void publish(Type type, ProfileCache.Entity entity, String username) {
+        ProfileCache.invalidate(entity, username);
+        String changedAt = Instant.now().toString();
+        lock.lock();
+        try {
+            long seq = ++sequence;
+            ProfileChangeDTO change = new ProfileChangeDTO(BOOT + "-" + seq, type.name().toLowerCase(Locale.ROOT),
+                    entity.name().toLowerCase(Locale.ROOT), username, changedAt);
+            ring[(int) (seq % BUFFER_SIZE)] = change;
+            for (Subscription subscription : subscribers) subscription.offer(change);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Registers a subscriber for the given usernames, or for everyone when the set is empty.
+     * With a lastEventId the buffered changes after it are delivered first, or a reset is flagged
+     * when that point can no longer be resumed from.
+     *
+     * @return the subscription, or null when personahub.changes.maxSubscribers streams are open
+     */
+    public static Subscription subscribe(Set<String> usernames, String lastEventId) {
+        lock.lock();
+        try {
+            if (subscribers.size() >= MAX_SUBSCRIBERS) return null;
+            Subscription subscription = new Subscription(usernames);
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                long from = resumePoint(lastEventId.trim());
+                if (from < 0) {
+                    subscription.resetId = BOOT + "-" + sequence;
+                } else {
+                    for (long seq = from + 1; seq <= sequence; seq++) {
+                        ProfileChangeDTO change = ring[(int) (seq % BUFFER_SIZE)];
+                        if (subscription.matches(change)) subscription.backlog.add(change);
+                    }
+                }
+            }
+            subscribers.add(subscription);
+            return subscription;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static int getSubscribers() {
+        return subscribers.size();
+    }
+
+    public static long getOverflows() {
+        return overflows.sum();
+    }
+
+    /** The sequence after which to replay, or -1 when the id is foreign, in the future or overwritten. */
+    private static long resumePoint(String lastEventId) {
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash <= 0 || !lastEventId.substring(0, dash).equals(BOOT)) return -1;
+        try {
+            long seq = Long.parseLong(lastEventId.substring(dash + 1));
+            return seq > sequence || seq < sequence - BUFFER_SIZE ? -1 : seq;
+        } catch (NumberFormatException err) {
+            return -1;
+        }
+    }
+
+    /**
+     * One subscriber's view of the stream. Only the thread that serves the subscriber polls it.
+     */
+    public static final class Subscription {
+
+        private final Set<String> usernames;
+        private final ArrayDeque<ProfileChangeDTO> backlog = new ArrayDeque<>();
+        private final BlockingQueue<ProfileChangeDTO> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+        private volatile boolean overflowed;
+        private String resetId;
+
+        private Subscription(Set<String> usernames) {
+            this.usernames = Set.copyOf(usernames);
+        }
+
+        /**
+         * Id to send with a reset event when Last-Event-ID could not be resumed, otherwise null.
+         */
+        public String getResetId() {
+            return resetId;
+        }
+
+        public boolean isOverflowed() {
+            return overflowed;
+        }
+
+        /**
+         * The next change, waiting up to the timeout; null if none arrived.
+         */
+        public ProfileChangeDTO poll(long timeout, TimeUnit unit) throws InterruptedException {
+            ProfileChangeDTO next = backlog.poll();
+            return next != null ? next : queue.poll(timeout, unit);
+        }
+
+        public void close() {
+            subscribers.remove(this);
+        }
+
+        private boolean matches(ProfileChangeDTO change) {
+            return change != null && (usernames.isEmpty() || usernames.contains(change.getUsername()));
+        }
+
+        private void offer(ProfileChangeDTO change) {
+            if (overflowed || !matches(change) || queue.offer(change)) return;
+            overflowed = true;
+            subscribers.remove(this);
+            overflows.increment();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      ProfileComposer.java                                            *
+ * Created:   17/10/2026, 20:41                                               *
+ * Modified:  17/10/2026, 22:14                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.dao.mapper;
+
+import com.aerosimo.ominet.core.config.Settings;
+import com.aerosimo.ominet.dao.impl.AddressResponseDTO;
+import com.aerosimo.ominet.dao.impl.ContactResponseDTO;
+import com.aerosimo.ominet.dao.impl.ImageMetaDTO;
+import com.aerosimo.ominet.dao.impl.ImageResponseDTO;
+import com.aerosimo.ominet.dao.impl.PersonResponseDTO;
+import com.aerosimo.ominet.dao.impl.ProfileResponseDTO;
+import com.aerosimo.ominet.security.Redact;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Builds the combined profile view by running the four profile reads concurrently on virtual threads.
+ * Parts that fail or miss the deadline are left empty and listed in "unavailable"; their reads are
+ * not interrupted, so a late result still lands in the ProfileCache for the next request.
+ */
+public class ProfileComposer {
+
+    private static final Logger log = LogManager.getLogger(ProfileComposer.class.getName());
+
+    private static final long DEADLINE_MS = Settings.getLong("personahub.profile.deadlineMs", 3000);
+
+    private static final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("profile-", 0).factory());
+
+    public static ProfileResponseDTO compose(String username, Integer avatarSize) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DEADLINE_MS);
+        Future<PersonResponseDTO> person = executor.submit(() -> ProfileCache.getPerson(username));
+        Future<AddressResponseDTO> address = executor.submit(() -> ProfileCache.getAddress(username));
+        Future<List<ContactResponseDTO>> contacts = executor.submit(() -> ProfileCache.getContact(username));
+        Future<ImageResponseDTO> avatar = executor.submit(avatarSize == null
+                ? () -> ProfileCache.getImage(username)
+                : (Callable<ImageResponseDTO>) () -> {
+                    ImageMetaDTO meta = ProfileVersions.avatar(username);
+                    return meta == null ? null : AvatarVariants.variant(meta, avatarSize);
+                });
+
+        ProfileResponseDTO response = new ProfileResponseDTO(username);
+        response.setPerson(await("person", person, deadline, response));
+        response.setAddress(await("address", address, deadline, response));
+        List<ContactResponseDTO> list = await("contact", contacts, deadline, response);
+        if (list != null) response.setContacts(list);
+        ImageResponseDTO image = await("avatar", avatar, deadline, response);
+        response.setAvatar(image == null || image.getAvatar() == null ? null : image);
+        return response;
+    }
+
+    private static <T> T await(String part, Future<T> future, long deadline, ProfileResponseDTO response) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException err) {
+            log.warn("Profile {} for {} missed the {} ms deadline", part, Redact.pii(response.getUsername()), DEADLINE_MS);
+        } catch (ExecutionException err) {
+            log.error("Profile {} for {} failed", part, Redact.pii(response.getUsername()), err.getCause());
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+        }
+        response.getUnavailable().add(part);
+        return null;
+    }
+}
@@ -0,0 +1,574 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      ProfileImport.java                                              *
+ * Created:   17/10/2026, 21:37                                               *
+ * Modified:  17/10/2026, 21:47                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.dao.mapper;
+
+import com.aerosimo.ominet.core.config.Settings;
+import com.aerosimo.ominet.dao.impl.*;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bulk import of profiles from NDJSON or CSV as a parse, validate, batch and write pipeline.
+ * The request thread parses and validates records and routes each one by username to one of
+ * personahub.import.writers workers, so a user's records are always written in file order. Each
+ * worker takes full batches from its own bounded queue, which holds the parser back when the
+ * database falls behind, and saves a batch's persons, addresses and contacts with one array call
+ * each. Progress is checkpointed to personahub.import.dir: an interrupted import resumed with the
+ * same file skips every record up to the last checkpoint. Records that fail are listed in an
+ * NDJSON error report next to the checkpoint.
+ */
+public class ProfileImport {
+
+    private static final Logger log = LogManager.getLogger(ProfileImport.class.getName());
+
+    private static final Path DIR = Path.of(Settings.get("personahub.import.dir",
+            Path.of(System.getProperty("java.io.tmpdir"), "personahub-import").toString()));
+    private static final int WRITERS = Math.max(1, Settings.getInt("personahub.import.writers", 4));
+    private static final int BATCH_SIZE = Math.max(1, Settings.getInt("personahub.import.batchSize", 500));
+    private static final int QUEUE_DEPTH = Math.max(1, Settings.getInt("personahub.import.queue", 4));
+    private static final long CHECKPOINT_NANOS = TimeUnit.MILLISECONDS.toNanos(
+            Settings.getLong("personahub.import.checkpointMs", 1000));
+    private static final long RETENTION_MS = TimeUnit.HOURS.toMillis(
+            Settings.getLong("personahub.import.retentionHours", 72));
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final ObjectReader records = mapper.readerFor(ImportRecordDTO.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private static final ObjectWriter writer = mapper.writer();
+    private static final ObjectReader rows = new CsvMapper().readerFor(Map.class)
+            .with(CsvSchema.emptySchema().withHeader())
+            .with(CsvParser.Feature.IGNORE_TRAILING_UNMAPPABLE);
+    private static final ProfileRepository profiles = ProfileRepository.instance();
+
+    private static final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("import-", 0).factory());
+    private static final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    /**
+     * Imports every record of the input, or resumes importId after its last checkpoint.
+     *
+     * @return the final progress, status "completed" or "interrupted" when the input broke off
+     * @throws NoSuchElementException when there is no import to resume under importId
+     * @throws IllegalStateException  when that import is still running
+     */
+    public static ImportResponseDTO run(String importId, Format format, InputStream in) throws IOException {
+        ImportResponseDTO previous = null;
+        if (importId != null) {
+            previous = status(importId);
+            if (previous == null) throw new NoSuchElementException("no import " + importId);
+        } else {
+            importId = UUID.randomUUID().toString();
+            purge();
+        }
+        if (!running.add(importId)) throw new IllegalStateException("import " + importId + " is still running");
+        try {
+            return new Run(importId, previous == null ? 0 : previous.getCommitted()).execute(format, in);
+        } finally {
+            running.remove(importId);
+        }
+    }
+
+    /** @return the last checkpoint of the import, or null when there is none */
+    public static ImportResponseDTO status(String importId) throws IOException {
+        Path checkpoint = file(importId, ".json");
+        if (checkpoint == null || !Files.exists(checkpoint)) return null;
+        return mapper.readValue(checkpoint.toFile(), ImportResponseDTO.class);
+    }
+
+    /** @return the import's error report, or null when there is no such import */
+    public static Path errors(String importId) {
+        Path report = file(importId, ".errors.ndjson");
+        return report == null || !Files.exists(report) ? null : report;
+    }
+
+    /* import ids are generated UUIDs; anything else never reaches the file system */
+    private static Path file(String importId, String suffix) {
+        try {
+            if (!UUID.fromString(importId).toString().equals(importId)) return null;
+        } catch (IllegalArgumentException | NullPointerException err) {
+            return null;
+        }
+        return DIR.resolve(importId + suffix);
+    }
+
+    /* drops checkpoints and reports older than personahub.import.retentionHours */
+    private static void purge() {
+        if (!Files.isDirectory(DIR)) return;
+        long cutoff = System.currentTimeMillis() - RETENTION_MS;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(DIR)) {
+            for (Path path : files) {
+                if (Files.getLastModifiedTime(path).toMillis() < cutoff) Files.deleteIfExists(path);
+            }
+        } catch (IOException err) {
+            log.warn("Unable to purge old imports from {}", DIR, err);
+        }
+    }
+
+    private static String validate(ImportRecordDTO record) {
+        String username = record.getUsername();
+        if (username == null || username.isBlank()) return "username is required";
+        List<ContactRequestDTO> contacts = record.getContacts() == null ? List.of() : record.getContacts();
+        if (record.getPerson() == null && record.getAddress() == null && contacts.isEmpty()) {
+            return "record has no person, address or contacts";
+        }
+        PersonRequestDTO person = record.getPerson();
+        if (person != null) {
+            if (!owned(username, person.getUsername())) return "person username does not match the record";
+            person.setUsername(username);
+            try {
+                LocalDate.parse(Objects.requireNonNull(person.getBirthday()));
+            } catch (DateTimeParseException | NullPointerException err) {
+                return "person birthday must be a date such as 1990-01-31";
+            }
+        }
+        AddressRequestDTO address = record.getAddress();
+        if (address != null) {
+            if (!owned(username, address.getUsername())) return "address username does not match the record";
+            address.setUsername(username);
+        }
+        for (ContactRequestDTO contact : contacts) {
+            if (contact == null || contact.getChannel() == null || contact.getAddress() == null) {
+                return "contact channel and address are required";
+            }
+            if (!owned(username, contact.getUsername())) return "contact username does not match the record";
+            contact.setUsername(username);
+        }
+        return null;
+    }
+
+    private static boolean owned(String username, String partUsername) {
+        return partUsername == null || partUsername.isEmpty() || partUsername.equals(username);
+    }
+
+    /* -------------------- Sources -------------------- */
+
+    /** Yields records in file order; a record that cannot be read is reported by IllegalArgumentException. */
+    private interface Source {
+        /** @return the next record, or null at the end of the input */
+        ImportRecordDTO next() throws IOException;
+    }
+
+    private static Source source(Format format, InputStream in) throws IOException {
+        if (format == Format.CSV) {
+            MappingIterator<Map<String, String>> csv = rows.readValues(in);
+            return () -> csv.hasNextValue() ? fromCsv(csv.nextValue()) : null;
+        }
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) return null;
+            } while (line.isBlank());
+            try {
+                return records.readValue(line);
+            } catch (JsonProcessingException err) {
+                throw new IllegalArgumentException("not a valid record: " + err.getOriginalMessage());
+            }
+        };
+    }
+
+    /* one CSV row may carry a person, an address and one contact, each only when any of its columns is set */
+    private static ImportRecordDTO fromCsv(Map<String, String> row) {
+        ImportRecordDTO record = new ImportRecordDTO();
+        record.setUsername(value(row, "username"));
+        if (any(row, "title", "firstName", "middleName", "lastName", "gender", "birthday")) {
+            record.setPerson(new PersonRequestDTO(null, value(row, "title"), value(row, "firstName"),
+                    value(row, "middleName"), value(row, "lastName"), value(row, "gender"), value(row, "birthday")));
+        }
+        if (any(row, "firstline", "secondline", "thirdline", "city", "postcode", "country")) {
+            record.setAddress(new AddressRequestDTO(null, value(row, "firstline"), value(row, "secondline"),
+                    value(row, "thirdline"), value(row, "city"), value(row, "postcode"), value(row, "country")));
+        }
+        if (any(row, "channel", "contact", "consent")) {
+            record.getContacts().add(new ContactRequestDTO(null, value(row, "channel"), value(row, "contact"),
+                    value(row, "consent")));
+        }
+        return record;
+    }
+
+    private static boolean any(Map<String, String> row, String... columns) {
+        for (String column : columns) {
+            if (value(row, column) != null) return true;
+        }
+        return false;
+    }
+
+    private static String value(Map<String, String> row, String column) {
+        String value = row.get(column);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /* -------------------- Pipeline -------------------- */
+
+    private record Item(long record, ImportRecordDTO data) {}
+
+    private static final class Batch {
+        private final long first;
+        private final List<Item> items = new ArrayList<>(BATCH_SIZE);
+
+        private Batch(long first) {
+            this.first = first;
+        }
+    }
+
+    /* queued after a lane's last batch to stop its worker */
+    private static final Batch END = new Batch(Long.MAX_VALUE);
+
+    /* pending is only touched by the parsing thread; unfinished holds every batch not yet written, oldest first */
+    private static final class Lane {
+        private final BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(QUEUE_DEPTH);
+        private final Queue<Batch> unfinished = new ConcurrentLinkedQueue<>();
+        private Batch pending;
+        private volatile boolean stopped;
+    }
+
+    private static final class Run {
+        private final String id;
+        private final long resumedFrom;
+        private final String startedAt = new Timestamp(System.currentTimeMillis()).toString();
+        private final Lane[] lanes = new Lane[WRITERS];
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private BufferedWriter errors;
+        private long read;
+        private long received;
+        private long lastCheckpoint;
+
+        private Run(String id, long resumedFrom) {
+            this.id = id;
+            this.resumedFrom = resumedFrom;
+            for (int i = 0; i < lanes.length; i++) lanes[i] = new Lane();
+        }
+
+        private ImportResponseDTO execute(Format format, InputStream in) throws IOException {
+            Files.createDirectories(DIR);
+            Path report = DIR.resolve(id + ".errors.ndjson");
+            if (resumedFrom > 0) trimErrors(report);
+            long start = System.nanoTime();
+            String status = "completed";
+            String message = null;
+            try (BufferedWriter out = Files.newBufferedWriter(report, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                errors = out;
+                checkpoint("running", null);
+                List<Future<?>> workers = new ArrayList<>(lanes.length);
+                for (Lane lane : lanes) workers.add(executor.submit(() -> work(lane)));
+                try {
+                    read(source(format, in));
+                } catch (IOException err) {
+                    status = "interrupted";
+                    message = "import stopped after record " + read + ": " + err.getMessage();
+                    log.warn("Import {} interrupted after record {}", id, read, err);
+                } finally {
+                    try {
+                        for (Lane lane : lanes) flush(lane);
+                    } catch (IOException err) {
+                        status = "interrupted";
+                        message = "import stopped after record " + read + ": " + err.getMessage();
+                    }
+                    stop(workers);
+                }
+                for (Lane lane : lanes) {
+                    if (!lane.unfinished.isEmpty() && "completed".equals(status)) {
+                        status = "interrupted";
+                        message = "a writer stopped before all batches were written";
+                    }
+                }
+                ImportResponseDTO result = checkpoint(status, message);
+                log.info("Import {} {} in {} ms: {} received, {} imported, {} failed, resumed after {}", id, status,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), received, imported.get(),
+                        failed.get(), resumedFrom);
+                return result;
+            }
+        }
+
+        private void read(Source source) throws IOException {
+            lastCheckpoint = System.nanoTime();
+            while (true) {
+                ImportRecordDTO record;
+                try {
+                    record = source.next();
+                } catch (IllegalArgumentException err) {
+                    if (++read > resumedFrom) {
+                        received++;
+                        failed.incrementAndGet();
+                        reject(read, null, "record", err.getMessage());
+                    }
+                    continue;
+                }
+                if (record == null) return;
+                if (++read <= resumedFrom) continue;
+                received++;
+                String problem = validate(record);
+                if (problem != null) {
+                    failed.incrementAndGet();
+                    reject(read, record.getUsername(), "record", problem);
+                } else {
+                    route(read, record);
+                }
+                if (System.nanoTime() - lastCheckpoint >= CHECKPOINT_NANOS) {
+                    for (Lane lane : lanes) flush(lane);
+                    checkpoint("running", null);
+                }
+            }
+        }
+
+        private void route(long record, ImportRecordDTO data) throws IOException {
+            Lane lane = lanes[Math.floorMod(data.getUsername().hashCode(), lanes.length)];
+            if (lane.pending == null) {
+                lane.pending = new Batch(record);
+                lane.unfinished.add(lane.pending);
+            }
+            lane.pending.items.add(new Item(record, data));
+            if (lane.pending.items.size() >= BATCH_SIZE) flush(lane);
+        }
+
+        private void flush(Lane lane) throws IOException {
+            if (lane.pending == null) return;
+            enqueue(lane, lane.pending);
+            lane.pending = null;
+        }
+
+        /*
+         * Waits while the lane's queue is full, which is what keeps the parser in step with the
+         * writers, but gives up if the lane's worker has stopped and will never take the batch.
+         */
+        private void enqueue(Lane lane, Batch batch) throws IOException {
+            try {
+                while (!lane.queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                    if (lane.stopped) throw new IOException("import writer stopped");
+                }
+            } catch (InterruptedException err) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while queueing a batch");
+            }
+        }
+
+        /* ends every lane with END once its queued batches are written; a lane that cannot take it is cancelled */
+        private void stop(List<Future<?>> workers) {
+            for (int i = 0; i < lanes.length; i++) {
+                try {
+                    if (!lanes[i].stopped) enqueue(lanes[i], END);
+                } catch (IOException err) {
+                    workers.get(i).cancel(true);
+                }
+            }
+            await(workers);
+        }
+
+        private void work(Lane lane) {
+            try {
+                while (true) {
+                    Batch batch = lane.queue.take();
+                    if (batch == END) return;
+                    write(batch);
+                    lane.unfinished.poll();
+                }
+            } catch (InterruptedException err) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lane.stopped = true;
+            }
+        }
+
+        private void write(Batch batch) {
+            boolean[] rejected = new boolean[batch.items.size()];
+            try {
+                save(batch, rejected, "person", data -> data.getPerson() == null ? List.of() : List.of(data.getPerson()),
+                        profiles::importPersons);
+                save(batch, rejected, "address", data -> data.getAddress() == null ? List.of() : List.of(data.getAddress()),
+                        profiles::importAddresses);
+                save(batch, rejected, "contact", data -> data.getContacts() == null ? List.of() : data.getContacts(),
+                        profiles::importContacts);
+            } catch (RuntimeException err) {
+                log.error("Import {} batch from record {} failed", id, batch.first, err);
+                for (int i = 0; i < rejected.length; i++) {
+                    if (rejected[i]) continue;
+                    rejected[i] = true;
+                    Item item = batch.items.get(i);
+                    reject(item.record(), item.data().getUsername(), "record", "internal server error");
+                }
+            }
+            int bad = 0;
+            for (boolean r : rejected) if (r) bad++;
+            failed.addAndGet(bad);
+            imported.addAndGet(rejected.length - bad);
+        }
+
+        private <T> void save(Batch batch, boolean[] rejected, String part, Function<ImportRecordDTO, List<T>> parts,
+                              Function<List<T>, List<String>> saver) {
+            List<T> values = new ArrayList<>();
+            List<Integer> owners = new ArrayList<>();
+            for (int i = 0; i < batch.items.size(); i++) {
+                for (T value : parts.apply(batch.items.get(i).data())) {
+                    values.add(value);
+                    owners.add(i);
+                }
+            }
+            if (values.isEmpty()) return;
+            List<String> statuses = saver.apply(values);
+            for (int i = 0; i < values.size(); i++) {
+                String status = i < statuses.size() ? statuses.get(i) : "unsuccessful";
+                if ("success".equals(status)) continue;
+                int owner = owners.get(i);
+                rejected[owner] = true;
+                Item item = batch.items.get(owner);
+                reject(item.record(), item.data().getUsername(), part, status);
+            }
+        }
+
+        private void reject(long record, String username, String part, String message) {
+            try {
+                String line = writer.writeValueAsString(new ImportErrorDTO(record, username, part, message));
+                synchronized (this) {
+                    errors.write(line);
+                    errors.newLine();
+                }
+            } catch (IOException err) {
+                log.error("Unable to report import {} record {}: {}", id, record, message, err);
+            }
+        }
+
+        private void await(List<Future<?>> workers) {
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (InterruptedException err) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (CancellationException err) {
+                    log.warn("Import {} writer cancelled", id);
+                } catch (ExecutionException err) {
+                    log.error("Import {} writer failed", id, err.getCause());
+                }
+            }
+        }
+
+        /**
+         * Every record up to the oldest batch still queued or being written is finished, so that is
+         * where a resumed import picks up. The error report is flushed first so it always covers
+         * the checkpoint.
+         */
+        private ImportResponseDTO checkpoint(String status, String message) throws IOException {
+            long committed = read;
+            for (Lane lane : lanes) {
+                Batch oldest = lane.unfinished.peek();
+                if (oldest != null) committed = Math.min(committed, oldest.first - 1);
+            }
+            synchronized (this) {
+                errors.flush();
+            }
+            ImportResponseDTO progress = new ImportResponseDTO();
+            progress.setImportId(id);
+            progress.setStatus(status);
+            progress.setMessage(message);
+            progress.setResumedFrom(resumedFrom);
+            progress.setCommitted(Math.max(committed, resumedFrom));
+            progress.setReceived(received);
+            progress.setImported(imported.get());
+            progress.setFailed(failed.get());
+            progress.setStartedAt(startedAt);
+            progress.setUpdatedAt(new Timestamp(System.currentTimeMillis()).toString());
+            Path target = DIR.resolve(id + ".json");
+            Path temp = DIR.resolve(id + ".json.tmp");
+            Files.write(temp, writer.writeValueAsBytes(progress));
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            lastCheckpoint = System.nanoTime();
+            return progress;
+        }
+
+        /* entries past the checkpoint belong to records this run reads again */
+        private void trimErrors(Path report) throws IOException {
+            if (!Files.exists(report)) return;
+            List<String> kept = new ArrayList<>();
+            try (BufferedReader in = Files.newBufferedReader(report, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (!line.isBlank() && mapper.readTree(line).path("record").asLong() <= resumedFrom) kept.add(line);
+                }
+            }
+            Path temp = DIR.resolve(id + ".errors.ndjson.tmp");
+            Files.write(temp, kept, StandardCharsets.UTF_8);
+            Files.move(temp, report, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      ProfileRepository.java                                          *
+ * Created:   17/10/2026, 21:00                                               *
+ * Modified:  17/10/2026, 22:19                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.dao.mapper;
+
+import com.aerosimo.ominet.core.config.Settings;
+import com.aerosimo.ominet.core.media.AvatarUpload;
+import com.aerosimo.ominet.dao.impl.*;
+import org.apache.logging.log4j.LogManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage operations behind the REST layer and the profile caches.
+ * The backend is chosen once at startup by personahub.repository: "oracle" (default) runs the
+ * identification_pkg procedures through PersonaDAO, "memory" keeps everything on the heap so the
+ * HTTP and serialization stack can be run and load tested without a database.
+ */
+public interface ProfileRepository {
+
+    static ProfileRepository instance() {
+        return Backend.SELECTED;
+    }
+
+    APIResponseDTO saveAddress(String username, String firstline, String secondline,
+                               String thirdline, String city, String postcode, String country);
+
+    BatchResponseDTO saveContacts(List<ContactRequestDTO> contacts);
+
+    /**
+     * Bulk import writes: every element is saved on its own, so one bad element neither stops nor
+     * rolls back the others.
+     *
+     * @return one status per element, "success" or the reason it was not saved
+     */
+    List<String> importPersons(List<PersonRequestDTO> persons);
+
+    List<String> importAddresses(List<AddressRequestDTO> addresses);
+
+    List<String> importContacts(List<ContactRequestDTO> contacts);
+
+    APIResponseDTO saveImage(String username, AvatarUpload upload);
+
+    APIResponseDTO savePerson(String username, String title, String firstName,
+                              String middleName, String lastName, String gender, String birthday);
+
+    /*
+     * The profile and avatar metadata reads return null (or no contacts, or leave the user out of
+     * a map) only when the user has no such data; a failed read throws IllegalStateException so it
+     * is not taken for missing data.
+     */
+    AddressResponseDTO getAddress(String username);
+
+    /** @return the user's contacts, never null */
+    List<ContactResponseDTO> getContact(String username);
+
+    ImageResponseDTO getImage(String username);
+
+    /** @return avatar size, type and modification time without the image bytes, or null when there is none */
+    ImageMetaDTO getImageMeta(String username);
+
+    /** Avatar metadata for many users; users without an avatar are left out. */
+    Map<String, ImageMetaDTO> getImageMetas(Collection<String> usernames);
+
+    /**
+     * Hands the avatar bytes to the reader as a stream.
+     *
+     * @return the reader's result, or null when the user has no avatar
+     */
+    <T> T readImage(String username, BlobReader<T> reader) throws IOException;
+
+    /**
+     * Streams the avatar to out in a single read if it is still the version meta describes.
+     *
+     * @return false, with nothing written, when the avatar is gone or changed since meta was read
+     */
+    boolean writeImage(ImageMetaDTO meta, OutputStream out) throws IOException;
+
+    PersonResponseDTO getPerson(String username);
+
+    Map<String, PersonResponseDTO> getPersons(Collection<String> usernames);
+
+    Map<String, AddressResponseDTO> getAddresses(Collection<String> usernames);
+
+    Map<String, List<ContactResponseDTO>> getContacts(Collection<String> usernames);
+
+    APIResponseDTO removeAddress(String username);
+
+    APIResponseDTO removeContact(String username, String channel);
+
+    APIResponseDTO removeImage(String username);
+
+    APIResponseDTO removePerson(String username);
+
+    APIResponseDTO getMetrics(String username);
+
+    /**
+     * Opens an export of every profile whose person, address or contacts changed at or after since
+     * (epoch milliseconds, 0 for all). The caller must close it, streamed or not.
+     */
+    Export export(long since) throws IOException;
+
+    @FunctionalInterface
+    interface BlobReader<T> {
+        T read(InputStream in) throws IOException;
+    }
+
+    /** An open export: the data source's clock when it was taken and the profiles to stream. */
+    interface Export extends AutoCloseable {
+        /** epoch milliseconds on the clock modifiedDate is stamped with, the since of the next run */
+        long watermark();
+
+        /**
+         * Hands each profile to the sink as it is read.
+         *
+         * @return the number of profiles written
+         */
+        long stream(ExportSink sink) throws IOException;
+
+        @Override
+        void close();
+    }
+
+    @FunctionalInterface
+    interface ExportSink {
+        /** person, address or contacts is null when the user has none */
+        void accept(String username, PersonResponseDTO person, AddressResponseDTO address,
+                    List<ContactResponseDTO> contacts) throws IOException;
+    }
+
+    final class Backend {
+        private static final ProfileRepository SELECTED = select(Settings.get("personahub.repository", "oracle"));
+
+        private Backend() {
+        }
+
+        private static ProfileRepository select(String name) {
+            ProfileRepository repository = switch (name.trim().toLowerCase()) {
+                case "memory", "in-memory" -> new InMemoryProfileRepository();
+                case "oracle" -> new OracleProfileRepository();
+                default -> throw new IllegalStateException("Unknown personahub.repository '" + name
+                        + "', expected oracle or memory");
+            };
+            LogManager.getLogger(ProfileRepository.class).info("Using {} profile repository", name);
+            return repository;
+        }
+    }
+}
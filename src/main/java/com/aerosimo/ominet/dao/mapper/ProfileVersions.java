@@ -0,0 +1,159 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      ProfileVersions.java                                            *
+ * Created:   17/10/2026, 20:57                                               *
+ * Modified:  17/10/2026, 22:19                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.dao.mapper;
+
+import com.aerosimo.ominet.core.config.Settings;
+import com.aerosimo.ominet.dao.impl.ImageMetaDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lightweight index of the last representation version served for each profile entity,
+ * so conditional GETs can be answered with 304 without touching the row, the BLOB or the
+ * profile cache. Versions are dropped together with the ProfileCache entry on save/remove.
+ */
+public class ProfileVersions {
+
+    private static final long TTL_SECONDS = Settings.getLong("personahub.versions.ttlSeconds",
+            Settings.getLong("personahub.cache.ttlSeconds", 300));
+    private static final long MAX_ENTRIES = Settings.getLong("personahub.versions.maxEntries", 100_000);
+
+    /** Content hash of a JSON representation and its modification time (0 when unknown). */
+    public record Version(String tag, long lastModified) {}
+
+    private record Key(ProfileCache.Entity entity, String username) {}
+
+    private static final Cache<Key, Version> versions = Caffeine.newBuilder()
+            .expireAfterWrite(TTL_SECONDS, TimeUnit.SECONDS)
+            .maximumSize(MAX_ENTRIES)
+            .build();
+
+    /*
+     * invalidation counters, striped by key: a reader takes the generation before loading and only
+     * records its version if no save or remove ran meanwhile, so a version built from data read
+     * before a write cannot be re-installed after it. A shared stripe at worst skips a put.
+     */
+    private static final AtomicLongArray generations = new AtomicLongArray(4096);
+
+    private static final Cache<String, ImageMetaDTO> avatars = Caffeine.newBuilder()
+            .expireAfterWrite(TTL_SECONDS, TimeUnit.SECONDS)
+            .maximumSize(MAX_ENTRIES)
+            .build();
+
+    public static Version get(ProfileCache.Entity entity, String username) {
+        return versions.getIfPresent(new Key(entity, username));
+    }
+
+    /**
+     * To be taken before the representation is read, see {@link #put}.
+     */
+    public static long generation(ProfileCache.Entity entity, String username) {
+        return generations.get(stripe(new Key(entity, username)));
+    }
+
+    /**
+     * Records the version of a freshly serialized representation, unless the entity was saved or
+     * removed since the generation was taken. The version is returned either way.
+     */
+    public static Version put(ProfileCache.Entity entity, String username, long generation, byte[] body,
+                              long lastModified) {
+        Version version = new Version(hash(body), lastModified);
+        Key key = new Key(entity, username);
+        versions.asMap().compute(key, (k, current) ->
+                generations.get(stripe(k)) == generation ? version : current);
+        return version;
+    }
+
+    /**
+     * Avatar metadata (size, type, modification time) without the BLOB, loaded once per TTL.
+     *
+     * @return the metadata, or null when the user has no avatar
+     */
+    public static ImageMetaDTO avatar(String username) {
+        return avatars.get(username, ProfileRepository.instance()::getImageMeta);
+    }
+
+    public static void invalidate(ProfileCache.Entity entity, String username) {
+        Key key = new Key(entity, username);
+        generations.incrementAndGet(stripe(key));
+        versions.invalidate(key);
+        if (entity == ProfileCache.Entity.AVATAR) avatars.invalidate(username);
+    }
+
+    /**
+     * Parses a modifiedDate column value as JDBC timestamp, ISO date-time or ISO date.
+     *
+     * @return epoch milliseconds, or 0 when the value is missing or in another format
+     */
+    public static long lastModified(String modifiedDate) {
+        if (modifiedDate == null || modifiedDate.isBlank()) return 0;
+        String value = modifiedDate.trim();
+        try {
+            return Timestamp.valueOf(value).getTime();
+        } catch (IllegalArgumentException ignored) {
+        }
+        try {
+            return LocalDateTime.parse(value).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ignored) {
+        }
+        try {
+            return LocalDate.parse(value).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ignored) {
+        }
+        return 0;
+    }
+
+    private static int stripe(Key key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (generations.length() - 1);
+    }
+
+    private static String hash(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException err) {
+            throw new IllegalStateException(err);
+        }
+    }
+}
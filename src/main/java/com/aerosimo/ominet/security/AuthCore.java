@@ -4,7 +4,7 @@
  * Author:    eomisore                                                        *
  * File:      AuthCore.java                                                   *
  * Created:   30/11/2025, 21:34                                               *
- * Modified:  30/11/2025, 21:34                                               *
+ * Modified:  17/10/2026, 21:56                                               *
  *                                                                            *
  * Copyright (c)  2025.  Aerosimo Ltd                                         *
  *                                                                            *
@@ -31,20 +31,39 @@
 
 package com.aerosimo.ominet.security;
 
-import com.github.benmanes.caffeine.cache.Cache;
+import com.aerosimo.ominet.core.config.Settings;
+import com.aerosimo.ominet.core.metrics.Telemetry;
+import com.github.benmanes.caffeine.cache.AsyncCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.aerosimo.ominet.dao.impl.APIResponseDTO;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -52,12 +71,20 @@ public class AuthCore {
 
     private static final Logger log = LogManager.getLogger(AuthCore.class.getName());
 
-    private static final String AUTHCORE_BASE_URL =
-            "https://ominet.aerosimo.com:9443/authcore/api/auth/validate";
+    private static final String AUTHCORE_BASE_URL = Settings.get("personahub.authcore.url",
+            "https://ominet.aerosimo.com:9443/authcore/api/auth/validate");
 
     private static final MediaType JSON = MediaType.parse("application/json");
 
+    private static final Mode MODE = Mode.of(Settings.get("personahub.auth.mode", "remote"));
+
+    private static final long VALIDATE_TIMEOUT_MS = Settings.getLong("personahub.authcore.timeoutMs", 8000);
+
     private static final OkHttpClient http = new OkHttpClient.Builder()
+            .dispatcher(dispatcher())
+            .connectionPool(new ConnectionPool(
+                    Settings.getInt("personahub.authcore.maxIdleConnections", 16),
+                    Settings.getLong("personahub.authcore.keepAliveSeconds", 300), TimeUnit.SECONDS))
             .connectTimeout(5, TimeUnit.SECONDS)
             .readTimeout(6, TimeUnit.SECONDS)
             .writeTimeout(6, TimeUnit.SECONDS)
@@ -66,49 +93,300 @@ public class AuthCore {
     private static final ObjectMapper mapper = new ObjectMapper()
             .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
-    private static final Cache<String, Boolean> tokenCache = Caffeine.newBuilder()
-            .expireAfterWrite(10, TimeUnit.MINUTES)
-            .maximumSize(5000)
-            .build();
+    private static final long DEFAULT_TTL_NANOS = seconds("personahub.auth.cache.ttlSeconds", 600);
+    private static final long MAX_TTL_NANOS = seconds("personahub.auth.cache.maxTtlSeconds", 3600);
+    private static final long REFRESH_NANOS = seconds("personahub.auth.cache.refreshSeconds", 300);
+    private static final long INVALID_TTL_NANOS = seconds("personahub.auth.cache.invalidTtlSeconds", 300);
+    private static final long NEGATIVE_TTL_NANOS = seconds("personahub.auth.cache.negativeTtlSeconds", 5);
 
-    public static boolean validateToken(String token) {
-        log.info("Token to consider is {}", token);
+    /*
+     * Keyed by a 128-bit digest of the token, so the cache never holds bearer tokens.
+     * Concurrent lookups of the same token share one in-flight validate call, and every entry
+     * lives as long as its own verdict allows (see Verdict).
+     */
+    private static final AsyncCache<TokenKey, Verdict> tokenCache = Caffeine.newBuilder()
+            .maximumSize(Settings.getLong("personahub.auth.cache.maxEntries", 100_000))
+            .expireAfter(new Expiry<TokenKey, Verdict>() {
+                @Override
+                public long expireAfterCreate(TokenKey key, Verdict verdict, long currentTime) {
+                    return verdict.ttlNanos;
+                }
+
+                @Override
+                public long expireAfterUpdate(TokenKey key, Verdict verdict, long currentTime, long currentDuration) {
+                    return verdict.ttlNanos;
+                }
+
+                @Override
+                public long expireAfterRead(TokenKey key, Verdict verdict, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .buildAsync();
+
+    private static Dispatcher dispatcher() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(Settings.getInt("personahub.authcore.maxRequests", 64));
+        dispatcher.setMaxRequestsPerHost(Settings.getInt("personahub.authcore.maxRequestsPerHost", 32));
+        return dispatcher;
+    }
+
+    public static CompletableFuture<Boolean> validateTokenAsync(String token) {
         if (token == null || token.trim().isEmpty()) {
             log.error("Invalid token");
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
-        Boolean cached = tokenCache.getIfPresent(token);
-        if (cached != null) {
-            return cached;
+        TokenKey key = TokenKey.of(token);
+        return tokenCache.get(key, (k, executor) -> remoteValidate(token)
+                        .thenApply(outcome -> Verdict.of(outcome, outcome == Outcome.VALID ? expiresAt(token) : -1)))
+                .thenApply(verdict -> {
+                    if (verdict.isRefreshDue()) refresh(key, token, verdict);
+                    return verdict.valid;
+                });
+    }
+
+    /** Fails fast when the configured mode cannot work, see {@link TokenVerifier}. */
+    static void checkMode() {
+        if (MODE != Mode.REMOTE) TokenVerifier.requireRevocations();
+    }
+
+    public static boolean validateToken(String token) {
+        return validateToken(token, false);
+    }
+
+    /**
+     * In local and hybrid mode signed tokens are verified by {@link TokenVerifier}; AuthCore is only
+     * asked about tokens it cannot verify (opaque tokens, unknown key IDs, stale revocation list) and,
+     * in hybrid mode, about revocation-sensitive requests, which always get a live answer.
+     */
+    public static boolean validateToken(String token, boolean revocationSensitive) {
+        if (MODE != Mode.REMOTE && token != null && !token.isBlank()) {
+            TokenVerifier.Result result = TokenVerifier.verify(token);
+            Telemetry.count("personahub.auth.local", "result", result.name().toLowerCase());
+            switch (result) {
+                case INVALID, REVOKED -> {
+                    return false;
+                }
+                case VALID -> {
+                    if (MODE == Mode.LOCAL || !revocationSensitive) return true;
+                    return await(liveValidate(token));
+                }
+                case UNVERIFIABLE -> log.debug("Token {} not verifiable locally, asking AuthCore", Redact.token(token));
+            }
+        }
+        return await(validateTokenAsync(token));
+    }
+
+    private static boolean await(CompletableFuture<Boolean> verdict) {
+        try {
+            return verdict.get(VALIDATE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException ex) {
+            log.error("AuthCore token validation failed: {}", ex.getMessage());
+            return false;
         }
+    }
+
+    /**
+     * Asks AuthCore directly, bypassing the cache, and stores the answer. If AuthCore is unavailable
+     * the cached verdict is used instead.
+     */
+    private static CompletableFuture<Boolean> liveValidate(String token) {
+        return remoteValidate(token).thenCompose(outcome -> {
+            if (outcome == Outcome.UNAVAILABLE) return validateTokenAsync(token);
+            Verdict verdict = Verdict.of(outcome, outcome == Outcome.VALID ? expiresAt(token) : -1);
+            tokenCache.put(TokenKey.of(token), CompletableFuture.completedFuture(verdict));
+            return CompletableFuture.completedFuture(verdict.valid);
+        });
+    }
+
+    static OkHttpClient client() {
+        return http;
+    }
+
+    public static CacheStats stats() {
+        return tokenCache.synchronous().stats();
+    }
+
+    private static CompletableFuture<Outcome> remoteValidate(String token) {
+        CompletableFuture<Outcome> result = new CompletableFuture<>();
         try {
             Map<String, String> payload = new HashMap<>();
             payload.put("authKey", token);
             String json = mapper.writeValueAsString(payload);
-            log.info("Sending request {} to server endpoint {}",json, AUTHCORE_BASE_URL);
+            if (log.isDebugEnabled()) {
+                log.debug("Validating token {} against {}", Redact.token(token), AUTHCORE_BASE_URL);
+            }
             Request request = new Request.Builder()
                     .url(AUTHCORE_BASE_URL)
                     .post(RequestBody.create(json, JSON))
                     .addHeader("Content-Type", "application/json")
                     .build();
-            try (Response response = http.newCall(request).execute()) {
-                if (!response.isSuccessful() || response.body() == null) {
-                    log.error("AuthCore HTTP error: {}", response.code());
-                    tokenCache.put(token, false);
-                    return false;
+            long start = System.nanoTime();
+            http.newCall(request).enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException ex) {
+                    Telemetry.record("personahub.authcore.calls", System.nanoTime() - start, "outcome", "failure");
+                    log.error("AuthCore unreachable: {}", ex.getMessage());
+                    result.complete(Outcome.UNAVAILABLE);
                 }
-                String body = response.body().string(); // consume once
-                log.info("AuthCore response body: {}", body);
-                APIResponseDTO dto = mapper.readValue(body, APIResponseDTO.class);
-                log.info("Parsed AuthCore status: {}", dto.getStatus());
-                boolean valid = "success".equalsIgnoreCase(dto.getStatus())
-                        || "successful".equalsIgnoreCase(dto.getStatus());
-                tokenCache.put(token, valid);
-                return valid;
-            }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    Telemetry.record("personahub.authcore.calls", System.nanoTime() - start,
+                            "outcome", response.isSuccessful() ? "success" : "http_error");
+                    try (response) {
+                        if (!response.isSuccessful() || response.body() == null) {
+                            log.error("AuthCore HTTP error: {}", response.code());
+                            result.complete(Outcome.of(response.code()));
+                            return;
+                        }
+                        String body = response.body().string(); // consume once
+                        APIResponseDTO dto = mapper.readValue(body, APIResponseDTO.class);
+                        log.debug("Parsed AuthCore status: {}", dto.getStatus());
+                        result.complete("success".equalsIgnoreCase(dto.getStatus())
+                                || "successful".equalsIgnoreCase(dto.getStatus()) ? Outcome.VALID : Outcome.INVALID);
+                    } catch (Exception ex) {
+                        log.error("AuthCore response unreadable: {}", ex.getMessage());
+                        result.complete(Outcome.UNAVAILABLE);
+                    }
+                }
+            });
         } catch (Exception ex) {
-            System.err.println("AuthCore token validation failed: " + ex.getMessage());
-            return false;
+            log.error("AuthCore request failed: {}", ex.getMessage());
+            result.complete(Outcome.UNAVAILABLE);
+        }
+        return result;
+    }
+
+    /**
+     * Re-validates a valid token in the background before its entry expires. A definite answer
+     * replaces the entry; if AuthCore is unavailable the last good verdict keeps being served and
+     * the refresh is retried after personahub.auth.cache.negativeTtlSeconds.
+     */
+    private static void refresh(TokenKey key, String token, Verdict current) {
+        remoteValidate(token).thenAccept(outcome -> {
+            Telemetry.count("personahub.auth.cache.refresh", "outcome", outcome.name().toLowerCase());
+            if (outcome == Outcome.UNAVAILABLE) {
+                current.retryRefresh();
+            } else {
+                tokenCache.put(key, CompletableFuture.completedFuture(Verdict.of(outcome, current.expiresAt)));
+            }
+        });
+    }
+
+    private static long seconds(String key, long def) {
+        return TimeUnit.SECONDS.toNanos(Settings.getLong(key, def));
+    }
+
+    /**
+     * Seconds since the epoch at which a JWT's exp claim says it expires, or -1 when the token is
+     * not a JWT or carries no exp. Only the lifetime is read here; AuthCore remains the judge of validity.
+     */
+    static long expiresAt(String token) {
+        int first = token.indexOf('.');
+        int second = first < 0 ? -1 : token.indexOf('.', first + 1);
+        if (second < 0) return -1;
+        try {
+            JsonNode claims = mapper.readTree(Base64.getUrlDecoder().decode(token.substring(first + 1, second)));
+            JsonNode exp = claims.get("exp");
+            return exp != null && exp.canConvertToLong() ? exp.asLong() : -1;
+        } catch (IOException | IllegalArgumentException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * personahub.auth.mode: remote asks AuthCore about every uncached token, local verifies signed
+     * tokens itself, hybrid verifies locally but asks AuthCore live for revocation-sensitive requests.
+     */
+    public enum Mode {
+        REMOTE, LOCAL, HYBRID;
+
+        static Mode of(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException ex) {
+                log.warn("Unknown personahub.auth.mode '{}', validating tokens remotely", value);
+                return REMOTE;
+            }
+        }
+    }
+
+    private enum Outcome {
+        VALID, INVALID, UNAVAILABLE;
+
+        /**
+         * Client errors are a definite no; server errors, throttling and timeouts say nothing about the token.
+         */
+        static Outcome of(int httpStatus) {
+            return httpStatus >= 500 || httpStatus == 408 || httpStatus == 429 ? UNAVAILABLE : INVALID;
+        }
+    }
+
+    /**
+     * The first 128 bits of the token's SHA-256.
+     */
+    record TokenKey(long high, long low) {
+
+        static TokenKey of(String token) {
+            try {
+                ByteBuffer hash = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                        .digest(token.getBytes(StandardCharsets.UTF_8)));
+                return new TokenKey(hash.getLong(), hash.getLong());
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException("SHA-256 not available", ex);
+            }
+        }
+    }
+
+    /**
+     * A cached answer and how long it may be used. Valid tokens live until their JWT exp (capped at
+     * personahub.auth.cache.maxTtlSeconds, ttlSeconds for opaque tokens) and are refreshed ahead of that;
+     * rejected tokens live invalidTtlSeconds, and an unavailable AuthCore only negativeTtlSeconds.
+     */
+    static final class Verdict {
+
+        final boolean valid;
+        final long ttlNanos;
+        final long expiresAt;
+        private volatile long refreshAt;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Verdict(boolean valid, long ttlNanos, long expiresAt, long refreshAfterNanos) {
+            this.valid = valid;
+            this.ttlNanos = ttlNanos;
+            this.expiresAt = expiresAt;
+            this.refreshAt = refreshAfterNanos < 0 ? Long.MAX_VALUE : System.nanoTime() + refreshAfterNanos;
+        }
+
+        static Verdict of(Outcome outcome, long expiresAt) {
+            return switch (outcome) {
+                case INVALID -> new Verdict(false, INVALID_TTL_NANOS, -1, -1);
+                case UNAVAILABLE -> new Verdict(false, NEGATIVE_TTL_NANOS, -1, -1);
+                case VALID -> valid(expiresAt);
+            };
+        }
+
+        private static Verdict valid(long expiresAt) {
+            long ttl = DEFAULT_TTL_NANOS;
+            if (expiresAt > 0) {
+                long remaining = TimeUnit.SECONDS.toNanos(expiresAt) - TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+                ttl = Math.max(TimeUnit.SECONDS.toNanos(1), Math.min(remaining, MAX_TTL_NANOS));
+            }
+            return new Verdict(true, ttl, expiresAt, Math.min(REFRESH_NANOS, ttl * 3 / 4));
+        }
+
+        boolean isRefreshDue() {
+            return valid && System.nanoTime() - refreshAt >= 0 && refreshing.compareAndSet(false, true);
+        }
+
+        void retryRefresh() {
+            refreshAt = System.nanoTime() + NEGATIVE_TTL_NANOS;
+            refreshing.set(false);
         }
     }
 }
\ No newline at end of file
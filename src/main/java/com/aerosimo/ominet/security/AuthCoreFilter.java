@@ -4,7 +4,7 @@
  * Author:    eomisore                                                        *
  * File:      AuthCoreFilter.java                                             *
  * Created:   30/11/2025, 21:32                                               *
- * Modified:  30/11/2025, 21:32                                               *
+ * Modified:  17/10/2026, 21:56                                               *
  *                                                                            *
  * Copyright (c)  2025.  Aerosimo Ltd                                         *
  *                                                                            *
@@ -31,9 +31,11 @@
 
 package com.aerosimo.ominet.security;
 
+import com.aerosimo.ominet.core.metrics.Telemetry;
 import com.aerosimo.ominet.dao.impl.APIResponseDTO;
 
 import jakarta.annotation.Priority;
+import jakarta.ws.rs.HttpMethod;
 import jakarta.ws.rs.Priorities;
 import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.container.ContainerRequestFilter;
@@ -45,6 +47,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
+import java.util.Set;
 
 @Provider
 @Priority(Priorities.AUTHENTICATION)
@@ -52,19 +55,25 @@ import java.io.IOException;
 public class AuthCoreFilter implements ContainerRequestFilter {
 
     private static final Logger log = LogManager.getLogger(AuthCoreFilter.class.getName());
+    private static final Set<String> SAFE_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    /* the provider is created when the application deploys, so a bad auth mode stops the deployment */
+    public AuthCoreFilter() {
+        AuthCore.checkMode();
+    }
 
     @Override
     public void filter(ContainerRequestContext ctx) throws IOException {
         String authHeader = ctx.getHeaderString(HttpHeaders.AUTHORIZATION);
-        log.info("AuthCoreFilter invoked for {} with header {}",
-                ctx.getUriInfo().getPath(), authHeader);
+        log.debug("AuthCoreFilter invoked for {}", ctx.getUriInfo().getPath());
         if (authHeader == null || !authHeader.toLowerCase().startsWith("bearer ")) {
             abort(ctx, "Missing or invalid Authorization header");
             return;
         }
         String token = authHeader.substring(7).trim();
-        log.info("Token: {}", token);
-        boolean valid = AuthCore.validateToken(token);
+        long start = System.nanoTime();
+        boolean valid = AuthCore.validateToken(token, !SAFE_METHODS.contains(ctx.getMethod()));
+        Telemetry.record("personahub.auth.validate", System.nanoTime() - start, "result", valid ? "valid" : "rejected");
         if (!valid) {
             abort(ctx, "Invalid or expired token");
         }
@@ -0,0 +1,221 @@
+/******************************************************************************
+ * This piece of work is to enhance personahub project functionality.         *
+ *                                                                            *
+ * Author:    eomisore                                                        *
+ * File:      TokenVerifier.java                                              *
+ * Created:   17/10/2026, 21:17                                               *
+ * Modified:  17/10/2026, 21:56                                               *
+ *                                                                            *
+ * Copyright (c)  2025.  Aerosimo Ltd                                         *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,            *
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES            *
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                   *
+ * NONINFINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT                 *
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,               *
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING               *
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE                 *
+ * OR OTHER DEALINGS IN THE SOFTWARE.                                         *
+ *                                                                            *
+ ******************************************************************************/
+
+package com.aerosimo.ominet.security;
+
+import com.aerosimo.ominet.core.config.Settings;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.BadJWSException;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.JWTParser;
+import com.nimbusds.jwt.PlainJWT;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.BadJWTException;
+import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
+import com.nimbusds.jwt.proc.DefaultJWTClaimsVerifier;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Verifies signed AuthCore tokens without a network call: the JWS signature against AuthCore's
+ * key set (personahub.auth.jwks.url, cached and refreshed ahead of expiry, re-fetched at a limited
+ * rate for unknown key IDs), exp/nbf within personahub.auth.clockSkewSeconds, issuer and audience
+ * when configured, and the jti against the revocation list.
+ */
+public class TokenVerifier {
+
+    public enum Result {
+        VALID,
+        INVALID,
+        REVOKED,
+        /** Opaque or encrypted token, unknown key, key set unreachable or revocation list stale. */
+        UNVERIFIABLE
+    }
+
+    private static final Logger log = LogManager.getLogger(TokenVerifier.class.getName());
+
+    private static final String JWKS_URL = Settings.get("personahub.auth.jwks.url",
+            "https://ominet.aerosimo.com:9443/authcore/api/auth/jwks");
+    /*
+     * Without a revocation list a locally verified token stays valid until it expires, however soon
+     * AuthCore revokes it. Local and hybrid mode therefore refuse to start without one unless
+     * personahub.auth.revocations.optional is set to accept exactly that.
+     */
+    private static final String REVOCATIONS_URL = Settings.get("personahub.auth.revocations.url", null);
+    private static final boolean REVOCATIONS_OPTIONAL = Settings.getBoolean("personahub.auth.revocations.optional", false);
+    private static final long REVOCATIONS_REFRESH_SECONDS = Settings.getLong("personahub.auth.revocations.refreshSeconds", 30);
+    private static final long REVOCATIONS_MAX_STALE_MS =
+            TimeUnit.SECONDS.toMillis(Settings.getLong("personahub.auth.revocations.maxStaleSeconds", 300));
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final ConfigurableJWTProcessor<SecurityContext> processor = processor();
+
+    private static volatile Set<String> revoked = Set.of();
+    private static volatile long revocationsLoadedAt = -1;
+
+    static {
+        if (REVOCATIONS_URL == null) {
+            if (REVOCATIONS_OPTIONAL) {
+                log.warn("No personahub.auth.revocations.url configured, REVOKED TOKENS STAY VALID UNTIL THEY EXPIRE");
+            }
+        } else {
+            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "authcore-revocations");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(TokenVerifier::loadRevocations, 0,
+                    REVOCATIONS_REFRESH_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /** Called at startup in local and hybrid mode. */
+    static void requireRevocations() {
+        if (REVOCATIONS_URL == null && !REVOCATIONS_OPTIONAL) {
+            throw new IllegalStateException("personahub.auth.revocations.url is required in local and hybrid auth mode; "
+                    + "set personahub.auth.revocations.optional=true to accept revoked tokens until they expire");
+        }
+    }
+
+    public static Result verify(String token) {
+        JWT jwt;
+        try {
+            jwt = JWTParser.parse(token);
+        } catch (ParseException ex) {
+            return Result.UNVERIFIABLE;
+        }
+        if (jwt instanceof PlainJWT) return Result.INVALID;
+        if (!(jwt instanceof SignedJWT signed)) return Result.UNVERIFIABLE;
+        JWTClaimsSet claims;
+        try {
+            claims = processor.process(signed, null);
+        } catch (BadJWSException | BadJWTException ex) {
+            log.debug("Token {} rejected locally: {}", Redact.token(token), ex.getMessage());
+            return Result.INVALID;
+        } catch (BadJOSEException | JOSEException ex) {
+            log.debug("Token {} not verifiable locally: {}", Redact.token(token), ex.getMessage());
+            return Result.UNVERIFIABLE;
+        }
+        if (REVOCATIONS_URL == null) return Result.VALID;
+        if (System.currentTimeMillis() - revocationsLoadedAt > REVOCATIONS_MAX_STALE_MS) return Result.UNVERIFIABLE;
+        String jti = claims.getJWTID();
+        return jti != null && revoked.contains(jti) ? Result.REVOKED : Result.VALID;
+    }
+
+    public static int getRevoked() {
+        return revoked.size();
+    }
+
+    private static ConfigurableJWTProcessor<SecurityContext> processor() {
+        JWKSource<SecurityContext> keys;
+        try {
+            keys = JWKSourceBuilder.<SecurityContext>create(URI.create(JWKS_URL).toURL(),
+                            new DefaultResourceRetriever(
+                                    Settings.getInt("personahub.auth.jwks.connectTimeoutMs", 2000),
+                                    Settings.getInt("personahub.auth.jwks.readTimeoutMs", 2000),
+                                    JWKSourceBuilder.DEFAULT_HTTP_SIZE_LIMIT))
+                    .cache(TimeUnit.SECONDS.toMillis(Settings.getLong("personahub.auth.jwks.ttlSeconds", 300)),
+                            JWKSourceBuilder.DEFAULT_CACHE_REFRESH_TIMEOUT)
+                    .refreshAheadCache(true)
+                    .outageTolerant(true)
+                    .build();
+        } catch (MalformedURLException | IllegalArgumentException ex) {
+            throw new IllegalStateException("Invalid personahub.auth.jwks.url " + JWKS_URL, ex);
+        }
+        Set<JWSAlgorithm> algorithms = Arrays.stream(Settings.get("personahub.auth.algorithms", "RS256,ES256").split(","))
+                .map(String::trim).filter(s -> !s.isEmpty()).map(JWSAlgorithm::parse).collect(Collectors.toSet());
+        String audience = Settings.get("personahub.auth.audience", null);
+        String issuer = Settings.get("personahub.auth.issuer", null);
+        DefaultJWTClaimsVerifier<SecurityContext> claims = new DefaultJWTClaimsVerifier<>(
+                audience == null ? null : Collections.singleton(audience),
+                issuer == null ? null : new JWTClaimsSet.Builder().issuer(issuer).build(),
+                Set.of("exp"), null);
+        claims.setMaxClockSkew(Settings.getInt("personahub.auth.clockSkewSeconds", 60));
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(algorithms, keys));
+        processor.setJWTClaimsSetVerifier(claims);
+        return processor;
+    }
+
+    /**
+     * Replaces the revoked jti set with AuthCore's current list: a JSON array of jti strings or
+     * {"jti": ..., "exp": ...} objects. Entries whose exp has passed are dropped. On failure the
+     * previous list is kept until it is older than personahub.auth.revocations.maxStaleSeconds.
+     */
+    private static void loadRevocations() {
+        Request request = new Request.Builder().url(REVOCATIONS_URL).get().build();
+        try (Response response = AuthCore.client().newCall(request).execute()) {
+            if (!response.isSuccessful() || response.body() == null) {
+                log.warn("AuthCore revocation list HTTP error: {}", response.code());
+                return;
+            }
+            long now = System.currentTimeMillis() / 1000;
+            Set<String> jtis = new HashSet<>();
+            for (JsonNode entry : mapper.readTree(response.body().byteStream())) {
+                if (entry.isTextual()) {
+                    jtis.add(entry.asText());
+                } else if (entry.hasNonNull("jti") && (!entry.has("exp") || entry.get("exp").asLong() > now)) {
+                    jtis.add(entry.get("jti").asText());
+                }
+            }
+            revoked = Set.copyOf(jtis);
+            revocationsLoadedAt = System.currentTimeMillis();
+            log.debug("Loaded {} revoked token ids", jtis.size());
+        } catch (Exception ex) {
+            log.warn("AuthCore revocation list unavailable: {}", ex.getMessage());
+        }
+    }
+}
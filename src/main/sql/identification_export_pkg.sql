@@ -0,0 +1,46 @@
+-- ----------------------------------------------------------------------------
+-- identification_export_pkg: interface contract for /export.
+--
+-- This file ships the package SPECIFICATION only. The body depends on the
+-- tables behind identification_pkg, which are not part of this repository,
+-- so the DBA who owns that schema implements it. Install the specification,
+-- implement the body next to identification_pkg, and grant EXECUTE on the
+-- package to the application user.
+--
+-- exportProfiles(p_since, p_watermark, p_profiles)
+--
+--   p_since      only profiles whose person, address or any contact has a
+--                modifiedDate at or after this time; NULL exports everything.
+--   p_watermark  SYSTIMESTAMP taken when p_profiles is opened. The cursor
+--                reads as of that moment, so it is the next run's p_since
+--                (PersonaHub subtracts personahub.export.watermarkSkewSeconds
+--                for transactions that stamped modifiedDate before commit).
+--   p_profiles   ONE cursor, read once from start to end, ORDER BY username.
+--                Each selected profile yields one row per contact, or a
+--                single row when it has none, with these columns:
+--
+--     username
+--     title, firstName, middleName, lastName, zodiacSign, gender, birthday,
+--     age, modifiedBy, modifiedDate
+--         as returned by identification_pkg.getPerson; modifiedDate is NULL
+--         when the user has no person record
+--     firstline, secondline, thirdline, city, postcode, country,
+--     addressModifiedBy, addressModifiedDate
+--         as returned by identification_pkg.getAddress, the last two renamed;
+--         addressModifiedDate is NULL when the user has no address
+--     channel, contactAddress, consent, contactModifiedBy, contactModifiedDate
+--         one contact as returned by identification_pkg.getContact, address
+--         and the modified columns renamed; channel is NULL when the user has
+--         no contacts
+--
+--   The expected plan is a single pass: the person, address and contact
+--   tables outer-joined on username, filtered on the three modifiedDate
+--   columns, without per-user calls.
+-- ----------------------------------------------------------------------------
+
+CREATE OR REPLACE PACKAGE identification_export_pkg AS
+  PROCEDURE exportProfiles(p_since     IN  TIMESTAMP,
+                           p_watermark OUT TIMESTAMP,
+                           p_profiles  OUT SYS_REFCURSOR);
+END identification_export_pkg;
+/